@@ -0,0 +1,30 @@
+package com.niket.productreviewsystem.benchmark;
+
+import com.niket.productreviewsystem.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReviewService.getAverageRating for a random seeded product (the product detail header).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AverageRatingBenchmark {
+
+    @Benchmark
+    public double averageRating(SeededDatabase database) {
+        Long productId = database.productIds.get(ThreadLocalRandom.current().nextInt(database.productIds.size()));
+        return database.bean(ReviewService.class).getAverageRating(productId);
+    }
+}
@@ -0,0 +1,196 @@
+package com.niket.productreviewsystem.benchmark;
+
+import com.niket.productreviewsystem.ProductReviewSystemApplication;
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bulk insert through JPA (seeding, imports): ROWS reviews persisted in one transaction and flushed every
+ * FLUSH_EVERY rows, with the session's JDBC batch size set to 'jdbcBatchSize'. The score is rows per second.
+ * <p>
+ * H2 in memory has no network, so every statement execution and commit can be charged 'roundTripMicros'
+ * of simulated latency (200 is a same-datacenter MySQL round trip); that is where batching pays off.
+ * jdbcBatchSize=1 sends one INSERT per row, which is what IDENTITY ids forced whatever the setting;
+ * 50 matches hibernate.jdbc.batch_size and the id block of the pooled table generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int FLUSH_EVERY = 500;
+    private static final int AUTHORS = 100;
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    @Param({"0", "200"})
+    public long roundTripMicros;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private Long productId;
+    private final List<Long> userIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Own context (not SeededDatabase): the latency wrapper must be in place when the pool is created
+        context = new SpringApplicationBuilder(ProductReviewSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new RoundTripLatency(roundTripMicros)))
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "rating.stats.reconcile-on-startup=false",
+                        "search.rebuild-on-startup=false")
+                .run();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        Product product = new Product();
+        product.setName("Bulk Insert Benchmark Product");
+        productId = context.getBean(ProductRepository.class).save(product).getId();
+        for (int i = 0; i < AUTHORS; i++) {
+            User user = new User();
+            user.setUsername("bulk_author_" + i);
+            user.setEmail("bulk_author_" + i + "@example.com");
+            user.setPassword("password");
+            userIds.add(context.getBean(UserRepository.class).save(user).getId());
+        }
+    }
+
+    // Keeps the table the same size for every iteration
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM reviews WHERE product_id = ?", productId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertReviews() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            entityManager.getTransaction().begin();
+            Product product = entityManager.getReference(Product.class, productId);
+            for (int i = 0; i < ROWS; i++) {
+                Review review = new Review();
+                review.setProduct(product);
+                review.setUser(entityManager.getReference(User.class, userIds.get(i % AUTHORS)));
+                review.setRating(1 + i % 5);
+                review.setComment("Bulk inserted review " + i);
+                entityManager.persist(review);
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    product = entityManager.getReference(Product.class, productId);
+                }
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Wraps the DataSource so that every statement execution (a whole batch counts once) and every commit
+     * waits one simulated network round trip.
+     */
+    static class RoundTripLatency implements BeanPostProcessor, PriorityOrdered {
+
+        private final long nanos;
+
+        RoundTripLatency(long micros) {
+            this.nanos = TimeUnit.MICROSECONDS.toNanos(micros);
+        }
+
+        @Override
+        public int getOrder() {
+            return HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (nanos == 0 || !(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return delaying(super.getConnection(), Connection.class);
+                }
+            };
+        }
+
+        private <T> T delaying(Object target, Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("equals")) {
+                    return proxy == args[0];
+                }
+                if (name.equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                if (name.startsWith("execute") || name.equals("commit")) {
+                    LockSupport.parkNanos(nanos);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (type == Connection.class && result != null && name.matches("prepareStatement|prepareCall|createStatement")) {
+                    return delaying(result, method.getReturnType());
+                }
+                return result;
+            }));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.niket.productreviewsystem.benchmark;
+
+import com.niket.productreviewsystem.validator.NoUrlValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NoUrlValidator.isValid on 5000-character comments (the maximum a review comment may have).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NoUrlValidatorBenchmark {
+
+    private static final int LENGTH = 5000;
+
+    // prose: ordinary text without links; dots: punctuation-heavy text; url-at-end: a link after 5000 chars of prose
+    @Param({"prose", "dots", "url-at-end"})
+    public String comment;
+
+    private final NoUrlValidator validator = new NoUrlValidator();
+
+    private String value;
+
+    @Setup(Level.Trial)
+    public void buildComment() {
+        value = switch (comment) {
+            case "dots" -> repeat("Great value... Works fine!! 10/10 ... ");
+            case "url-at-end" -> repeat("Sturdy build and fast shipping, would buy again. ")
+                    .substring(0, LENGTH - 20) + " http://example.com";
+            default -> repeat("Sturdy build and fast shipping, would buy again. ");
+        };
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(value, null);
+    }
+
+    private static String repeat(String sentence) {
+        StringBuilder builder = new StringBuilder(LENGTH + sentence.length());
+        while (builder.length() < LENGTH) {
+            builder.append(sentence);
+        }
+        return builder.substring(0, LENGTH);
+    }
+}
@@ -0,0 +1,58 @@
+package com.niket.productreviewsystem.benchmark;
+
+import com.niket.productreviewsystem.model.ReviewDisplayDTO;
+import com.niket.productreviewsystem.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product page reads: one page of reviews for each sort order, first page and a deep page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ReviewReadBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"newest", "helpful", "highest", "lowest"})
+    public String sort;
+
+    // 0 = first page; 40 = deep page (400 reviews skipped with the default seed)
+    @Param({"0", "40"})
+    public int page;
+
+    private ReviewService reviewService;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        reviewService = database.bean(ReviewService.class);
+    }
+
+    @Benchmark
+    public Page<ReviewDisplayDTO> paginatedReviews(SeededDatabase database) {
+        return reviewService.getPaginatedReviewsByProductId(randomProduct(database), sort, PageRequest.of(page, PAGE_SIZE));
+    }
+
+    private Long randomProduct(SeededDatabase database) {
+        return database.productIds.get(ThreadLocalRandom.current().nextInt(database.productIds.size()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.niket.productreviewsystem.benchmark;
+
+import com.niket.productreviewsystem.ProductReviewSystemApplication;
+import com.niket.productreviewsystem.model.HelpfulScore;
+import com.niket.productreviewsystem.model.IdGenerators;
+import com.niket.productreviewsystem.service.IdGeneratorMigration;
+import com.niket.productreviewsystem.service.RatingStatsService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Shared JMH state: boots the application (without the web server) against the embedded H2 database
+ * from the test classpath and seeds it with a configurable catalog, e.g. "-p products=200 -p reviewsPerProduct=2000".
+ * Rows are inserted with plain JDBC batches and explicit ids, then the id generators are moved past them
+ * and the rating aggregates are rebuilt from them.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param({"20"})
+    public int products;
+
+    @Param({"500"})
+    public int reviewsPerProduct;
+
+    public ConfigurableApplicationContext context;
+
+    public List<Long> productIds;
+
+    // One author per review of a product; the same accounts are reused as voters
+    public List<Long> userIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ProductReviewSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "rating.stats.reconcile-on-startup=false")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), context.getBean(IdGeneratorMigration.class));
+        context.getBean(IdGeneratorMigration.class).alignAll();
+        context.getBean(RatingStatsService.class).reconcileAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, IdGeneratorMigration idGenerators) {
+        SplittableRandom random = new SplittableRandom(42);
+
+        long nextUserId = idGenerators.nextFreeId(IdGenerators.USERS);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < reviewsPerProduct; i++) {
+            users.add(new Object[]{nextUserId++, "bench_user_" + i, "bench_user_" + i + "@example.com", "password"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, email, password) VALUES (?, ?, ?, ?)", users);
+        userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'bench_user_%' ORDER BY id", Long.class);
+
+        long nextProductId = idGenerators.nextFreeId(IdGenerators.PRODUCTS);
+        List<Object[]> productRows = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            productRows.add(new Object[]{nextProductId++, "Benchmark Product " + p, "Seeded benchmark product " + p});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, description) VALUES (?, ?, ?)", productRows);
+        productIds = jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE name LIKE 'Benchmark Product %' ORDER BY id", Long.class);
+
+        long nextReviewId = idGenerators.nextFreeId(IdGenerators.REVIEWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (Long productId : productIds) {
+            List<Object[]> reviews = new ArrayList<>(reviewsPerProduct);
+            for (int i = 0; i < reviewsPerProduct; i++) {
+                LocalDateTime reviewDate = now.minusMinutes(random.nextInt(500_000));
+                int helpfulVotes = random.nextInt(50);
+                reviews.add(new Object[]{
+                        nextReviewId++,
+                        productId,
+                        userIds.get(i),
+                        1 + random.nextInt(5),
+                        "Seeded review " + i + " with an ordinary amount of text describing the product.",
+                        Timestamp.valueOf(reviewDate),
+                        helpfulVotes,
+                        HelpfulScore.of(helpfulVotes, reviewDate)
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO reviews (id, product_id, user_id, rating, comment, review_date, "
+                    + "verified_purchase, helpful_votes, helpful_score) VALUES (?, ?, ?, ?, ?, ?, TRUE, ?, ?)", reviews);
+        }
+    }
+}
\ No newline at end of file
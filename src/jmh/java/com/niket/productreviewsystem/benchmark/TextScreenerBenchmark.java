@@ -0,0 +1,102 @@
+package com.niket.productreviewsystem.benchmark;
+
+import com.niket.productreviewsystem.validator.TextScreener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * TextScreener against the regexes it replaced, on 5000-character inputs built to hurt a matcher:
+ * endless near misses of the link markers and of the blocklist words, so every position starts a
+ * partial match that fails late. 'blocklist' is the number of blocklisted words in the screener.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TextScreenerBenchmark {
+
+    private static final int LENGTH = 5000;
+
+    // Former NoUrlValidator pattern (precompiled) and former report-detail check (compiled on every call)
+    private static final Pattern LEGACY_URL_PATTERN =
+            Pattern.compile("((http|https)://|www\\.|\\.[a-z]{2,3}/?)", Pattern.CASE_INSENSITIVE);
+    private static final String LEGACY_REPORT_REGEX = ".*(http|www|\\.com|\\.net|\\.org|\\.co).*";
+
+    // prose: ordinary text; near-miss: almost-links and almost-blocklisted words; url-at-end: a link after 5000 chars.
+    // The legacy patterns stop early on near-miss because they flag ".cox" and "www" (false positives);
+    // the screener rejects those and has to read the whole input.
+    @Param({"prose", "near-miss", "url-at-end"})
+    public String input;
+
+    @Param({"0", "1000"})
+    public int blocklist;
+
+    private TextScreener screener;
+
+    private String value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < blocklist; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 0; j < 6 + random.nextInt(6); j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        screener = TextScreener.builder().addUrlMarkers().addBlocklist(words).build();
+
+        value = switch (input) {
+            // Every blocklist word appears with its last letter cut off and glued to the next one
+            case "near-miss" -> repeat("http:/ htp:// ww. wwwx .cox .coma .orgy " +
+                    (words.isEmpty() ? "" : String.join("", words.stream().limit(50)
+                            .map(word -> word.substring(0, word.length() - 1)).toList())) + " ");
+            case "url-at-end" -> repeat("Sturdy build and fast shipping, would buy again. ")
+                    .substring(0, LENGTH - 20) + " http://example.com";
+            default -> repeat("Sturdy build and fast shipping, would buy again. ");
+        };
+    }
+
+    @Benchmark
+    public boolean screener() {
+        return screener.containsAny(value);
+    }
+
+    @Benchmark
+    public boolean legacyUrlRegex() {
+        return LEGACY_URL_PATTERN.matcher(value).find();
+    }
+
+    @Benchmark
+    public boolean legacyReportRegex() {
+        return value.toLowerCase().matches(LEGACY_REPORT_REGEX);
+    }
+
+    private static String repeat(String sentence) {
+        StringBuilder builder = new StringBuilder(LENGTH + sentence.length());
+        while (builder.length() < LENGTH) {
+            builder.append(sentence);
+        }
+        return builder.substring(0, LENGTH);
+    }
+}
@@ -0,0 +1,95 @@
+package com.niket.productreviewsystem.benchmark;
+
+import com.niket.productreviewsystem.model.AppUserDetails;
+import com.niket.productreviewsystem.service.HelpfulVoteCounter;
+import com.niket.productreviewsystem.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * addVote under contention: every benchmark thread is a different logged-in user voting on the same review.
+ * One operation is a helpful vote followed by its removal, so the vote table stays the same size.
+ * The counter-only benchmarks compare how the helpful count itself is maintained on that review: an in-memory
+ * delta flushed in batches (HelpfulVoteCounter) versus one atomic row update per vote.
+ * Thread count is set with "-t", e.g. "-t 64".
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class VoteContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class HotReview {
+
+        Long reviewId;
+
+        final AtomicInteger nextVoter = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void pick(SeededDatabase database) {
+            reviewId = database.bean(JdbcTemplate.class).queryForObject(
+                    "SELECT MIN(id) FROM reviews WHERE product_id = ?", Long.class, database.productIds.get(0));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Voter {
+
+        @Setup(Level.Trial)
+        public void login(SeededDatabase database, HotReview hotReview) {
+            int index = hotReview.nextVoter.getAndIncrement();
+            if (index >= database.userIds.size()) {
+                throw new IllegalStateException("More benchmark threads than seeded users; raise reviewsPerProduct.");
+            }
+            // Same principal a real login produces, so the vote path does not look the user up
+            AppUserDetails principal = new AppUserDetails(database.userIds.get(index), "bench_user_" + index, "", List.of());
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        }
+
+        @TearDown(Level.Trial)
+        public void logout() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public void voteAndUnvote(SeededDatabase database, HotReview hotReview, Voter voter) {
+        ReviewService reviewService = database.bean(ReviewService.class);
+        reviewService.addVote(hotReview.reviewId, "UP");
+        reviewService.addVote(hotReview.reviewId, "DOWN");
+    }
+
+    @Benchmark
+    public void counterDeltaWithBatchFlush(SeededDatabase database, HotReview hotReview) {
+        // Flushed by the scheduled job (votes.flush-interval-ms), as in production
+        database.bean(HelpfulVoteCounter.class).add(hotReview.reviewId, 1);
+    }
+
+    @Benchmark
+    public void counterRowUpdatePerVote(SeededDatabase database, HotReview hotReview) {
+        database.bean(JdbcTemplate.class).update(
+                "UPDATE reviews SET helpful_votes = helpful_votes + 1 WHERE id = ?", hotReview.reviewId);
+    }
+}
@@ -2,8 +2,10 @@ package com.niket.productreviewsystem;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProductReviewSystemApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,56 @@
+package com.niket.productreviewsystem.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-process caches for the product catalog (see ProductCatalogService).
+ * Each cache has its own size bound and TTL, records hit/miss statistics (published by Actuator as
+ * 'cache.gets' / 'cache.evictions' metrics), and is evicted by ProductAdminService on every admin write.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_LIST = "productList";
+
+    @Value("${cache.products.max-size:5000}")
+    private long productsMaxSize;
+
+    @Value("${cache.products.ttl:10m}")
+    private Duration productsTtl;
+
+    @Value("${cache.product-list.ttl:5m}")
+    private Duration productListTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+
+        // Single products by id (product detail header)
+        caffeineCacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(productsMaxSize)
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build());
+
+        // The whole catalog list (only one entry)
+        caffeineCacheManager.registerCustomCache(PRODUCT_LIST, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(productListTtl)
+                .recordStats()
+                .build());
+
+        // Defer evictions to after commit, so a reader cannot re-cache the old row before the admin write commits
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,47 @@
+package com.niket.productreviewsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded executor for image post-processing (content sniffing and final placement, see ImageUploadService).
+ * ImageUploadService reserves one of the threads + queue-capacity places before an upload's transaction starts
+ * and refuses the upload when none is free, so tasks are never rejected here and never run on the caller's thread.
+ */
+@Configuration
+public class ImageProcessingConfig {
+
+    public static final String IMAGE_TASK_EXECUTOR = "imageTaskExecutor";
+
+    @Value("${images.processing.threads:2}")
+    private int threads;
+
+    @Value("${images.processing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Bean(name = IMAGE_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor imageTaskExecutor(Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Same bounds and back-pressure; the workers are virtual threads, so file I/O does not hold a platform thread
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("image-").getVirtualThreadFactory());
+        }
+        // Only reached during shutdown (see above); never run a task on the committing thread
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // Let queued images finish on shutdown, so their rows do not stay PENDING
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.niket.productreviewsystem.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer setup for the hot-path timers.
+ * Repository query timers (spring.data.repository.invocations), Hikari pool metrics (hikaricp.*)
+ * and Hibernate statistics (hibernate.*) are auto-configured by Spring Boot; this class only enables
+ * the @Timed annotations used on the service methods. Everything is scraped from /actuator/prometheus (admin-only).
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Applies @Timed on Spring beans (e.g. ReviewService.saveReview / addVote)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
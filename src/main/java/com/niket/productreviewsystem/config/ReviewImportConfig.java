@@ -0,0 +1,42 @@
+package com.niket.productreviewsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor for bulk review imports (see ReviewImportService). One worker by default: a job already writes
+ * in JDBC batches, and running jobs one after another keeps their chunk transactions from competing for
+ * the same rows. A submission beyond the queue capacity is refused rather than run on the request thread.
+ */
+@Configuration
+public class ReviewImportConfig {
+
+    public static final String IMPORT_TASK_EXECUTOR = "importTaskExecutor";
+
+    @Value("${imports.threads:1}")
+    private int threads;
+
+    @Value("${imports.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Bean(name = IMPORT_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor importTaskExecutor(Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("import-").getVirtualThreadFactory());
+        }
+        // A running job is stopped between two chunks (ReviewImportService.stop) and resumed from its checkpoint later;
+        // queued jobs are dropped and show up as interrupted on the next startup
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -2,6 +2,7 @@ package com.niket.productreviewsystem.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -26,11 +27,17 @@ public class SecurityConfig {
                         // Public access for registration, login, and product viewing
                         .requestMatchers("/", "/register", "/login", "/products", "/product-detail/**").permitAll()
 
+                        // Bulk rating summaries for the storefront (read-only JSON)
+                        .requestMatchers(HttpMethod.GET, "/api/products/ratings").permitAll()
+
                         // IMPORTANT: Permit public access to static resources including the custom product assets folder
-                        .requestMatchers("/css/**", "/uploads/**", "/images/**", "/product-assets/**").permitAll()
+                        .requestMatchers("/css/**", "/uploads/**", "/images/**", "/product-assets/**", "/img/**", "/media/**").permitAll()
+
+                        // Liveness probe for load balancers; every other Actuator endpoint (metrics, caches) is admin-only
+                        .requestMatchers("/actuator/health").permitAll()
 
                         // Admin-only paths
-                        .requestMatchers("/admin/**", "/analytics/**").hasRole("ADMIN")
+                        .requestMatchers("/admin/**", "/analytics/**", "/actuator/**").hasRole("ADMIN")
 
                         // All other requests require authentication
                         .anyRequest().authenticated()
@@ -0,0 +1,64 @@
+package com.niket.productreviewsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Extra wiring for virtual-thread mode (spring.threads.virtual.enabled=true).
+ * Spring Boot already moves Tomcat request handling, @Scheduled jobs and async MVC onto virtual threads,
+ * and ImageProcessingConfig switches its workers. What is left is the database: with no thread-pool
+ * limit in front of it, every request can reach the connection pool at the same time, so the
+ * DataSource is wrapped in a ConnectionLimitingDataSource sized to the Hikari pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // Static: a BeanPostProcessor must not pull the rest of this configuration into early initialization
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        long acquireTimeoutMillis = environment.getProperty("datasource.guard.acquire-timeout-ms", Long.class, 10000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                try {
+                    if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                        return bean;
+                    }
+                    int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                    return new ConnectionLimitingDataSource(dataSource, poolSize, acquireTimeoutMillis);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not inspect DataSource '" + beanName + "'", e);
+                }
+            }
+        };
+    }
+
+    // jdbc.guard.waiting / jdbc.guard.active, next to the hikaricp.* pool metrics
+    @Bean
+    public MeterBinder connectionGuardMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource guard) {
+                Gauge.builder("jdbc.guard.waiting", guard, ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("Threads waiting for a database connection permit")
+                        .register(registry);
+                Gauge.builder("jdbc.guard.active", guard, ConnectionLimitingDataSource::getActiveConnections)
+                        .description("Database connections currently handed out")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -1,11 +1,14 @@
 package com.niket.productreviewsystem.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class to map the physical storage directory for product images
@@ -14,6 +17,10 @@ import java.nio.file.Paths;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    // Legacy review uploads in external storage (see storage.root)
+    @Value("${review.upload.dir:${storage.root:./storage}/uploads/}")
+    private String reviewUploadDir;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
 
@@ -26,11 +33,25 @@ public class WebMvcConfig implements WebMvcConfigurer {
         // When a request comes in for /product-assets/**, Spring will look
         // in the absolute directory defined above.
         // The 'file:///' prefix and trailing slash are crucial for Windows paths.
+        // Legacy uploads have unique (UUID) names but are not content-hashed, so they are cached
+        // for a week and then revalidated via Last-Modified. New uploads are served by MediaController.
         registry.addResourceHandler("/product-assets/**")
-                .addResourceLocations("file:///" + absolutePath + "/");
+                .addResourceLocations("file:///" + absolutePath + "/")
+                .setCacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic());
+
+        // Legacy review uploads: the external storage directory first, then the images bundled in the jar
+        registry.addResourceHandler("/uploads/**")
+                .addResourceLocations(directoryLocation(reviewUploadDir), "classpath:/static/uploads/")
+                .setCacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic());
 
         // Ensure other static resources (CSS, JS, images in src/main/resources/static) still work
         registry.addResourceHandler("/static/**")
                 .addResourceLocations("classpath:/static/");
     }
-}
\ No newline at end of file
+
+    // "file:" URL of a directory; the trailing slash is required, and toUri() only adds it for existing directories
+    private static String directoryLocation(String dir) {
+        String location = Paths.get(dir).toAbsolutePath().normalize().toUri().toString();
+        return location.endsWith("/") ? location : location + "/";
+    }
+}
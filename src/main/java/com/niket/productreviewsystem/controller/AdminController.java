@@ -1,23 +1,38 @@
 package com.niket.productreviewsystem.controller;
 
-import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.AdminReviewDTO;
+import com.niket.productreviewsystem.model.ReviewModerationFilter;
 import com.niket.productreviewsystem.model.Product;
 import com.niket.productreviewsystem.service.AdminService;
 import com.niket.productreviewsystem.service.ProductAdminService;
-import com.niket.productreviewsystem.model.ReviewReport;
+import com.niket.productreviewsystem.model.ReportedReviewDTO;
+import com.niket.productreviewsystem.service.ReviewImportService;
 import com.niket.productreviewsystem.service.ReviewReportService;
+import com.niket.productreviewsystem.service.ReviewSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.List;
 
 @Controller
@@ -34,15 +49,54 @@ public class AdminController {
     @Autowired
     private ReviewReportService reportService;
 
-    // 1. Display the moderation dashboard
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @Autowired
+    private ReviewImportService reviewImportService;
+
+    // 1. Display the moderation dashboard (one filtered page at a time)
     @GetMapping("/reviews")
-    public String adminDashboard(Model model) {
-        // Fetch all reviews, ready for moderation (e.g., pending approval)
-        List<Review> allReviews = adminService.getAllReviews();
-        model.addAttribute("reviews", allReviews);
+    public String adminDashboard(@ModelAttribute("filter") ReviewModerationFilter filter,
+                                 @PageableDefault(size = 25, sort = "id", direction = Sort.Direction.DESC) Pageable pageable,
+                                 Model model) {
+        // Fetch a single page of reviews, ready for moderation (e.g., pending approval)
+        Page<AdminReviewDTO> reviews = adminService.getReviewsForModeration(filter, pageable);
+        model.addAttribute("reviews", reviews);
+        model.addAttribute("products", productAdminService.findAll()); // For the product filter drop-down
         return "admin/dashboard"; // Look for template in src/main/resources/templates/admin/dashboard.html
     }
 
+    // 1b. Export every review matching the filters as CSV (default) or NDJSON, streamed chunk by chunk
+    @GetMapping("/reviews/export")
+    public ResponseEntity<StreamingResponseBody> exportReviews(@ModelAttribute ReviewModerationFilter filter,
+                                                               @RequestParam(defaultValue = "csv") String format) {
+        if (format.equalsIgnoreCase("ndjson")) {
+            StreamingResponseBody body = out -> adminService.exportReviewsAsNdjson(filter, out);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reviews-export.ndjson\"")
+                    .contentType(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                    .body(body);
+        }
+        StreamingResponseBody body = out -> adminService.exportReviewsAsCsv(filter, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reviews-export.csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    // 1c. Rebuild the review search index from the database
+    @PostMapping("/search/rebuild")
+    public String rebuildSearchIndex(RedirectAttributes redirectAttributes) {
+        try {
+            long indexed = reviewSearchService.rebuild();
+            redirectAttributes.addFlashAttribute("successMessage", "Search index rebuilt: " + indexed + " reviews indexed.");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/reviews";
+    }
+
     // 2. Approve a review
     @PostMapping("/reviews/approve/{reviewId}")
     public String approveReview(@PathVariable Long reviewId, RedirectAttributes redirectAttributes) {
@@ -67,6 +121,90 @@ public class AdminController {
         return "redirect:/admin/reviews";
     }
 
+    // 4. Delete all selected reviews at once
+    @PostMapping("/reviews/bulk-delete")
+    public String bulkDeleteReviews(@RequestParam(required = false) List<Long> reviewIds, RedirectAttributes redirectAttributes) {
+        if (reviewIds == null || reviewIds.isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage", "No reviews selected.");
+            return "redirect:/admin/reviews";
+        }
+        try {
+            int deleted = adminService.deleteReviews(reviewIds);
+            redirectAttributes.addFlashAttribute("successMessage", deleted + " review(s) deleted.");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/reviews";
+    }
+
+    // 5. Delete every review written by one user (e.g. a spam account)
+    @PostMapping("/reviews/purge-user")
+    public String purgeUserReviews(@RequestParam String username, RedirectAttributes redirectAttributes) {
+        try {
+            int deleted = adminService.purgeReviewsByUser(username);
+            redirectAttributes.addFlashAttribute("successMessage", deleted + " review(s) by " + username + " deleted.");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/reviews";
+    }
+
+    // 1. Display the review import jobs, the upload form and the files waiting in the import inbox
+    @GetMapping("/imports")
+    public String importDashboard(Model model) {
+        model.addAttribute("jobs", reviewImportService.getRecentJobs());
+        model.addAttribute("inboxFiles", reviewImportService.listInboxFiles());
+        return "admin/imports";
+    }
+
+    // 2. Start an import from an uploaded CSV/NDJSON file (limited by spring.servlet.multipart.max-file-size)
+    @PostMapping("/imports")
+    public String importUpload(@RequestParam("file") MultipartFile file, Principal principal,
+                               RedirectAttributes redirectAttributes) {
+        try {
+            Long jobId = reviewImportService.importUpload(file, principal.getName()).getId();
+            redirectAttributes.addFlashAttribute("successMessage", "Import " + jobId + " queued.");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/imports";
+    }
+
+    // 3. Start an import from a file placed in the import inbox directory (no size limit)
+    @PostMapping("/imports/inbox")
+    public String importInboxFile(@RequestParam String fileName, Principal principal,
+                                  RedirectAttributes redirectAttributes) {
+        try {
+            Long jobId = reviewImportService.importInboxFile(fileName, principal.getName()).getId();
+            redirectAttributes.addFlashAttribute("successMessage", "Import " + jobId + " of " + fileName + " queued.");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/imports";
+    }
+
+    // 4. Resume a failed or interrupted import after its last committed chunk
+    @PostMapping("/imports/{id}/resume")
+    public String resumeImport(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+        try {
+            reviewImportService.resume(id);
+            redirectAttributes.addFlashAttribute("successMessage", "Import " + id + " resumed.");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/admin/imports";
+    }
+
+    // 5. Download the rows an import rejected, with the reasons, as CSV
+    @GetMapping("/imports/{id}/rejected")
+    public ResponseEntity<StreamingResponseBody> rejectedRows(@PathVariable Long id) {
+        StreamingResponseBody body = out -> reviewImportService.writeRejectedRows(id, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + id + "-rejected.csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
     // 1. List all products
     @GetMapping("/products")
     public String listProducts(Model model) {
@@ -93,11 +231,14 @@ public class AdminController {
                               @RequestParam("file") MultipartFile file,
                               RedirectAttributes redirectAttributes) {
         try {
-            // If the ID exists and the file is empty, retain the old image path
-            if (product.getId() != null && file.isEmpty()) {
+            // If the ID exists, retain the current image: a newly uploaded file only replaces it once processed
+            if (product.getId() != null) {
                 Product existingProduct = productAdminService.findById(product.getId()).orElse(null);
                 if (existingProduct != null) {
                     product.setImagePath(existingProduct.getImagePath());
+                    product.setImageStatus(existingProduct.getImageStatus());
+                    product.setThumbnailPath(existingProduct.getThumbnailPath());
+                    product.setPreviewPath(existingProduct.getPreviewPath());
                 }
             }
 
@@ -121,34 +262,35 @@ public class AdminController {
         return "redirect:/admin/products";
     }
 
-    // 1. Display the pending reports dashboard (NEW)
+    // 1. Display the report moderation queue: one keyset page of reported reviews, most reported first
     @GetMapping("/reports")
-    public String reportDashboard(Model model) {
-        List<ReviewReport> pendingReports = reportService.getPendingReports();
-        model.addAttribute("reports", pendingReports);
+    public String reportDashboard(@RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "20") int size,
+                                  Model model) {
+        Slice<ReportedReviewDTO> queue = reportService.getModerationQueue(cursor, Math.min(Math.max(size, 1), 100));
+        model.addAttribute("queue", queue);
+        model.addAttribute("currentCursor", cursor);
+        model.addAttribute("nextCursor", reportService.getNextCursor(queue));
         return "admin/report-dashboard"; // Look for template here
     }
 
-    // 2. Mark a report as processed (NEW)
-    // NOTE: Actual review deletion (rejection) is handled by the existing /reviews/reject/{reviewId} endpoint.
-    @PostMapping("/reports/process/{reportId}")
-    public String processReport(@PathVariable Long reportId,
-                                @RequestParam(required = false, defaultValue = "false") Boolean deleteReview, // Optional parameter
-                                RedirectAttributes redirectAttributes) {
+    // 2. Close all pending reports of a review, optionally deleting the review itself
+    @PostMapping("/reports/review/{reviewId}")
+    public String processReports(@PathVariable Long reviewId,
+                                 @RequestParam(required = false, defaultValue = "false") Boolean deleteReview, // Optional parameter
+                                 RedirectAttributes redirectAttributes) {
         try {
-            ReviewReport report = reportService.markReportAsProcessed(reportId);
-
-            // If the admin decides to delete the review that was reported:
             if (deleteReview) {
-                // Use the existing deletion service (AdminService)
-                adminService.moderateReview(report.getReview().getId(), false); // false = reject/delete
-                redirectAttributes.addFlashAttribute("successMessage", "Report ID " + reportId + " processed and Review ID " + report.getReview().getId() + " was deleted.");
+                // The review is deleted together with its reports (AdminService deletes them with one set-based statement)
+                adminService.moderateReview(reviewId, false); // false = reject/delete
+                redirectAttributes.addFlashAttribute("successMessage", "Review ID " + reviewId + " was deleted along with its reports.");
             } else {
-                redirectAttributes.addFlashAttribute("successMessage", "Report ID " + reportId + " processed (Review retained).");
+                int processed = reportService.markReportsAsProcessed(reviewId);
+                redirectAttributes.addFlashAttribute("successMessage", processed + " report(s) on Review ID " + reviewId + " processed (Review retained).");
             }
         } catch (RuntimeException e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
         }
         return "redirect:/admin/reports";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.niket.productreviewsystem.controller;
+
+import com.niket.productreviewsystem.service.ImageVariantService;
+import com.niket.productreviewsystem.service.ImageVariantService.Variant;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves resized variants of images that have no stored variant paths,
+ * e.g. /img/thumb/uploads/abc.png is the thumbnail of /uploads/abc.png.
+ */
+@Controller
+public class ImageVariantController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantController.class);
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @GetMapping("/img/{variant}/**")
+    public ResponseEntity<Resource> variant(@PathVariable String variant, HttpServletRequest request) {
+        // The original's public path is everything after "/img/{variant}"
+        String originalPath = URL_PATH_HELPER.getPathWithinApplication(request).substring(("/img/" + variant).length());
+        Variant size = Variant.fromKey(variant);
+        if (size == null || !imageVariantService.isPublicImagePath(originalPath)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Path file;
+        try {
+            file = imageVariantService.getOrCreateVariant(originalPath, size);
+        } catch (IOException e) {
+            logger.warn("Could not derive the {} variant of {}: {}", variant, originalPath, e.getMessage());
+            file = null;
+        }
+        if (file == null) {
+            // Unknown, undecodable (e.g. WebP) or oversized image: let the browser load the original instead
+            return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(request.getContextPath() + originalPath)).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic())
+                .body(new FileSystemResource(file));
+    }
+}
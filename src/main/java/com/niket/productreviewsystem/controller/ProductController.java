@@ -1,15 +1,19 @@
 package com.niket.productreviewsystem.controller;
 
 import com.niket.productreviewsystem.model.Product;
-import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.ProductRatingStats;
+import com.niket.productreviewsystem.model.ReviewDisplayDTO;
 import com.niket.productreviewsystem.model.ReviewFormDTO;
-import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.model.ReviewSearchResultDTO;
+import com.niket.productreviewsystem.service.ProductCatalogService;
 import com.niket.productreviewsystem.service.ReviewService;
 import com.niket.productreviewsystem.service.ReviewReportService; // Import was in user code, keeping it
+import com.niket.productreviewsystem.service.ReviewSearchService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page; // NEW IMPORT
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable; // NEW IMPORT
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault; // NEW IMPORT
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -24,7 +28,7 @@ import java.util.List;
 public class ProductController {
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductCatalogService productCatalogService; // Cached catalog reads
 
     @Autowired
     private ReviewService reviewService;
@@ -32,34 +36,69 @@ public class ProductController {
     @Autowired
     private ReviewReportService reportService;
 
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
     @GetMapping({"", "/"})
     public String listProducts(Model model) {
-        List<Product> products = productRepository.findAll();
+        List<Product> products = productCatalogService.findAll();
         model.addAttribute("products", products);
+        // Rating aggregates of every listed product in one query, keyed by product id
+        model.addAttribute("ratingStats", reviewService.getRatingStats(products.stream().map(Product::getId).toList()));
         return "product-list";
     }
 
+    // Full-text review search, across the catalog or within one product (productId)
+    @GetMapping("/search")
+    public String searchReviews(@RequestParam(required = false, defaultValue = "") String q,
+                                @RequestParam(required = false) Long productId,
+                                @PageableDefault(size = 10) Pageable pageable,
+                                Model model) {
+        if (productId != null) {
+            model.addAttribute("product", productCatalogService.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found")));
+        }
+        Page<ReviewSearchResultDTO> results = reviewSearchService.search(q, productId, pageable);
+        model.addAttribute("query", q);
+        model.addAttribute("productId", productId);
+        model.addAttribute("results", results);
+        return "review-search";
+    }
+
     // --- CRITICAL FIX APPLIED HERE ---
     @GetMapping("/{productId}")
     public String showProductDetails(@PathVariable Long productId,
                                      @PageableDefault(size = 5) Pageable pageable, // ADDED: Handles 'page' and 'size' parameters
                                      @RequestParam(required = false, defaultValue = "newest") String sort,
+                                     @RequestParam(required = false) String cursor, // Present (even empty) = keyset mode
                                      Model model) {
 
-        Product product = productRepository.findById(productId)
+        Product product = productCatalogService.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // NOTE FOR REVIEWSERVICE:
-        // You MUST implement this new method signature in ReviewService.java:
-        // public Page<Review> getPaginatedReviewsByProductId(Long productId, String sort, Pageable pageable)
-        Page<Review> reviewsPage = reviewService.getPaginatedReviewsByProductId(productId, sort, pageable);
+        // Keyset mode: seek past the cursor instead of skipping 'page * size' rows, no count query
+        boolean keysetMode = cursor != null;
+        Slice<ReviewDisplayDTO> reviewsPage;
+        if (keysetMode) {
+            reviewsPage = reviewService.getReviewSliceByProductId(productId, sort, cursor, pageable.getPageSize());
+            model.addAttribute("currentCursor", cursor);
+            model.addAttribute("nextCursor", reviewService.getNextCursor(reviewsPage, sort));
+        } else {
+            // NOTE FOR REVIEWSERVICE:
+            // You MUST implement this new method signature in ReviewService.java:
+            // public Page<Review> getPaginatedReviewsByProductId(Long productId, String sort, Pageable pageable)
+            reviewsPage = reviewService.getPaginatedReviewsByProductId(productId, sort, pageable);
+        }
+        model.addAttribute("keysetMode", keysetMode);
 
-        double averageRating = reviewService.getAverageRating(productId);
+        // Precomputed aggregate: average, count and star histogram in one lookup
+        ProductRatingStats ratingStats = reviewService.getRatingStats(productId);
 
         // 2. Add data to model
         model.addAttribute("product", product);
         model.addAttribute("reviews", reviewsPage); // <<< FIX: Pass the Page object to Thymeleaf
-        model.addAttribute("avgRating", averageRating); // Renamed attribute for consistency with the corrected HTML
+        model.addAttribute("avgRating", ratingStats.getAverageRating()); // Renamed attribute for consistency with the corrected HTML
+        model.addAttribute("ratingStats", ratingStats);
         model.addAttribute("currentSort", sort);
 
         // 3. Prepare DTO for form submission
@@ -103,6 +142,7 @@ public class ProductController {
                              @RequestParam(required = false, defaultValue = "newest") String sort,
                              @RequestParam(required = false, defaultValue = "0") int page, // Retain current page
                              @RequestParam(required = false, defaultValue = "5") int size, // Retain page size
+                             @RequestParam(required = false) String cursor, // Retain keyset position, if any
                              RedirectAttributes redirectAttributes) {
         try {
             // NOTE FOR REVIEWSERVICE:
@@ -113,7 +153,11 @@ public class ProductController {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
         }
 
-        // Redirect back, preserving current page, size, and sort for a smooth experience
+        // Redirect back, preserving current page (or cursor), size, and sort for a smooth experience
+        // Cursor tokens are URL-safe Base64; anything else is dropped rather than echoed into the redirect
+        if (cursor != null && cursor.matches("[A-Za-z0-9_-]*")) {
+            return "redirect:/products/" + productId + "?sort=" + sort + "&cursor=" + cursor + "&size=" + size;
+        }
         return "redirect:/products/" + productId + "?sort=" + sort + "&page=" + page + "&size=" + size;
     }
 
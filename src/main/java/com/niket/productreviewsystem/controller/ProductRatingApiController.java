@@ -0,0 +1,45 @@
+package com.niket.productreviewsystem.controller;
+
+import com.niket.productreviewsystem.model.RatingSummaryDTO;
+import com.niket.productreviewsystem.service.ReviewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk rating summaries for storefront pages: GET /api/products/ratings?ids=1,2,3
+ * returns average, count and star distribution of every requested product from one query.
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductRatingApiController {
+
+    // Upper bound on ids per call, so one request cannot turn into an unbounded IN list
+    private static final int MAX_IDS = 100;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @GetMapping("/ratings")
+    public ResponseEntity<List<RatingSummaryDTO>> ratings(@RequestParam List<Long> ids) {
+        List<Long> productIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (productIds.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<RatingSummaryDTO> summaries = reviewService.getRatingStats(productIds).values().stream()
+                .map(RatingSummaryDTO::of)
+                .toList();
+        // Aggregates change with every review; a short shared cache still absorbs bursts of identical calls
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic())
+                .body(summaries);
+    }
+}
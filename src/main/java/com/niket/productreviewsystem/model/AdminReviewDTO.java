@@ -0,0 +1,34 @@
+package com.niket.productreviewsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a review for the admin moderation table (admin/dashboard.html) and the exports.
+ * Product name and author username are joined in the same query, so rendering N rows
+ * costs one select instead of 2N lazy loads.
+ */
+@Data
+@AllArgsConstructor
+public class AdminReviewDTO {
+
+    private Long id;
+
+    private Long productId;
+
+    private String productName;
+
+    private String username;
+
+    private Integer rating;
+
+    private String comment;
+
+    private String imagePath;
+
+    private LocalDateTime reviewDate;
+
+    private boolean verifiedPurchase;
+}
@@ -0,0 +1,25 @@
+package com.niket.productreviewsystem.model;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Spring Security principal that also carries the database id of the logged-in user.
+ * It is stored in the session at login, so write paths (reviews, votes, reports) can
+ * reference the user by id without loading the User entity and its roles again.
+ */
+public class AppUserDetails extends org.springframework.security.core.userdetails.User {
+
+    private final Long userId;
+
+    public AppUserDetails(Long userId, String username, String password,
+                          Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
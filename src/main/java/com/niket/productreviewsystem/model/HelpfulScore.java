@@ -0,0 +1,28 @@
+package com.niket.productreviewsystem.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Ranking score behind the "Most Helpful" sort (Review.helpfulScore).
+ * <p>
+ * A review's weight is (1 + helpfulVotes) halved for every HALF_LIFE_DAYS of age, so a fresh review with
+ * a few votes can outrank an old one with slightly more. Stored as its logarithm,
+ * <pre>ln(1 + votes) + ln(2) * (reviewDate in days since the epoch) / HALF_LIFE_DAYS</pre>
+ * the age term depends only on the review date, not on "now": stored scores stay comparable forever,
+ * so the column only changes when votes change and needs no periodic re-aging.
+ */
+public final class HelpfulScore {
+
+    public static final double HALF_LIFE_DAYS = 180;
+
+    private static final double DECAY_PER_SECOND = Math.log(2) / (HALF_LIFE_DAYS * 24 * 60 * 60);
+
+    private HelpfulScore() {
+    }
+
+    public static double of(int helpfulVotes, LocalDateTime reviewDate) {
+        double recency = reviewDate != null ? reviewDate.toEpochSecond(ZoneOffset.UTC) * DECAY_PER_SECOND : 0;
+        return Math.log1p(Math.max(helpfulVotes, 0)) + recency;
+    }
+}
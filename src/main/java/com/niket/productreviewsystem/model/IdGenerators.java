@@ -0,0 +1,36 @@
+package com.niket.productreviewsystem.model;
+
+import java.util.List;
+
+/**
+ * Shared id allocation for the bulk-inserted entities (Product, User, Review, ReviewReport and the
+ * rejected rows of review imports).
+ * <p>
+ * IDENTITY ids are only known after each row's INSERT, so Hibernate has to execute inserts one by one
+ * and cannot batch them. These entities take their ids from one row per table in ID_TABLE instead, a
+ * block of ALLOCATION_SIZE ids at a time (pooled optimizer): a bulk insert costs one id round trip per
+ * block and its INSERTs go out in JDBC batches of hibernate.jdbc.batch_size.
+ * <p>
+ * ReviewVote keeps IDENTITY: its rows are written by VoteIngestionService in multi-row statements.
+ */
+public final class IdGenerators {
+
+    public static final String ID_TABLE = "id_generators";
+    public static final String SEGMENT_COLUMN = "entity";
+    public static final String NEXT_ID_COLUMN = "next_id";
+
+    // Same as hibernate.jdbc.batch_size, so one id block fills one batch
+    public static final int ALLOCATION_SIZE = 50;
+
+    // Segment values; each is the name of the table whose ids it hands out
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+    public static final String REVIEWS = "reviews";
+    public static final String REVIEW_REPORTS = "review_reports";
+    public static final String REVIEW_IMPORT_REJECTIONS = "review_import_rejections";
+
+    public static final List<String> TABLES = List.of(PRODUCTS, USERS, REVIEWS, REVIEW_REPORTS, REVIEW_IMPORT_REJECTIONS);
+
+    private IdGenerators() {
+    }
+}
@@ -0,0 +1,41 @@
+package com.niket.productreviewsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored image content, keyed by the SHA-256 of its bytes (see ImageBlobStore).
+ * refCount is the number of reviews/products whose imagePath points at it; a blob at 0 is
+ * deleted (with its variants) by the sweeper once it has stayed unreferenced for the grace period.
+ */
+@Entity
+@Table(name = "image_blobs", indexes = {
+        @Index(name = "idx_blob_refcount_updated", columnList = "ref_count, updated_at")
+})
+@Data
+public class ImageBlob {
+
+    // Lower-case hex SHA-256 of the original bytes
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    // File extension of the sniffed format, including the dot (".png")
+    @Column(nullable = false, length = 8)
+    private String extension;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Last reference change; the sweeper only removes blobs unreferenced for longer than its grace period
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
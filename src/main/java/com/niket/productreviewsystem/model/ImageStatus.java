@@ -0,0 +1,11 @@
+package com.niket.productreviewsystem.model;
+
+/**
+ * Processing state of an uploaded review/product image (see ImageUploadService).
+ * The entity's imagePath is only set once the image is READY; null means "no upload" (or a legacy row).
+ */
+public enum ImageStatus {
+    PENDING,  // Staged; waiting for content check and final placement
+    READY,    // Checked and placed; imagePath points to it
+    REJECTED  // Not a supported image, or too large to decode; the upload was discarded
+}
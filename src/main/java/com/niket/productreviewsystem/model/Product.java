@@ -9,7 +9,10 @@ import java.util.List;
 @Data
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_ids")
+    @TableGenerator(name = "product_ids", table = IdGenerators.ID_TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN, valueColumnName = IdGenerators.NEXT_ID_COLUMN,
+            pkColumnValue = IdGenerators.PRODUCTS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -21,6 +24,16 @@ public class Product {
     // Stores the file path to the image on the local file system
     private String imagePath;
 
+    // State of the latest image upload; the previous imagePath stays visible until a new upload is READY
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImageStatus imageStatus;
+
+    // Resized JPEG variants of imagePath (see ImageVariantService); null for images uploaded before they existed
+    private String thumbnailPath;
+
+    private String previewPath;
+
     // Define the one-to-many relationship with Reviews
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Review> reviews; // Not mapped to a column, used for ORM relationships
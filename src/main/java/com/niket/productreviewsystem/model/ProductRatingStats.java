@@ -0,0 +1,95 @@
+package com.niket.productreviewsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Per-product rating aggregate (count, sum and a 1-5 star histogram).
+ * Kept in step with the 'reviews' table by ReviewService/AdminService and rebuilt
+ * periodically by RatingStatsService, so product pages never have to load every review.
+ */
+@Entity
+@Table(name = "product_rating_stats")
+@Data
+public class ProductRatingStats {
+
+    // Shares the primary key with the product it describes
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum = 0;
+
+    @Column(name = "star1_count", nullable = false)
+    private long star1Count = 0;
+
+    @Column(name = "star2_count", nullable = false)
+    private long star2Count = 0;
+
+    @Column(name = "star3_count", nullable = false)
+    private long star3Count = 0;
+
+    @Column(name = "star4_count", nullable = false)
+    private long star4Count = 0;
+
+    @Column(name = "star5_count", nullable = false)
+    private long star5Count = 0;
+
+    public ProductRatingStats() {
+    }
+
+    public ProductRatingStats(Long productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Average rating rounded to one decimal place (0.0 when there are no reviews).
+     */
+    public double getAverageRating() {
+        if (reviewCount == 0) {
+            return 0.0;
+        }
+        return Math.round(((double) ratingSum / reviewCount) * 10.0) / 10.0;
+    }
+
+    /**
+     * Number of reviews with the given star rating (1-5).
+     */
+    public long getStarCount(int stars) {
+        return switch (stars) {
+            case 1 -> star1Count;
+            case 2 -> star2Count;
+            case 3 -> star3Count;
+            case 4 -> star4Count;
+            case 5 -> star5Count;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Share of reviews with the given star rating, as a whole percentage (used by the histogram bars).
+     */
+    public int getStarPercent(int stars) {
+        if (reviewCount == 0) {
+            return 0;
+        }
+        return (int) Math.round(getStarCount(stars) * 100.0 / reviewCount);
+    }
+
+    public void addRating(int rating, long count) {
+        reviewCount += count;
+        ratingSum += (long) rating * count;
+        switch (rating) {
+            case 1 -> star1Count += count;
+            case 2 -> star2Count += count;
+            case 3 -> star3Count += count;
+            case 4 -> star4Count += count;
+            case 5 -> star5Count += count;
+            default -> throw new IllegalArgumentException("Rating out of range: " + rating);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.niket.productreviewsystem.model;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON view of a product's rating aggregate, returned in bulk by /api/products/ratings.
+ * 'stars' maps each star value (5 down to 1) to its number of reviews.
+ */
+@Data
+public class RatingSummaryDTO {
+
+    private Long productId;
+
+    private double averageRating;
+
+    private long reviewCount;
+
+    private Map<Integer, Long> stars = new LinkedHashMap<>();
+
+    public static RatingSummaryDTO of(ProductRatingStats stats) {
+        RatingSummaryDTO summary = new RatingSummaryDTO();
+        summary.setProductId(stats.getProductId());
+        summary.setAverageRating(stats.getAverageRating());
+        summary.setReviewCount(stats.getReviewCount());
+        for (int star = 5; star >= 1; star--) {
+            summary.getStars().put(star, stats.getStarCount(star));
+        }
+        return summary;
+    }
+}
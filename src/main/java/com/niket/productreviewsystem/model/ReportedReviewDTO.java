@@ -0,0 +1,45 @@
+package com.niket.productreviewsystem.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One row of the report moderation queue (admin/report-dashboard.html): a reported review with
+ * the number of its pending reports and how they break down by reason.
+ */
+@Data
+@NoArgsConstructor
+public class ReportedReviewDTO {
+
+    private Long reviewId;
+
+    private Long productId;
+
+    private String productName;
+
+    private String username;
+
+    private Integer rating;
+
+    private String comment;
+
+    private long pendingReports;
+
+    private LocalDateTime lastReportDate;
+
+    private Map<String, Long> reasons = new LinkedHashMap<>();
+
+    // Used by the JPQL constructor expression in ReviewReportRepository; the report counts are filled in afterwards
+    public ReportedReviewDTO(Long reviewId, Long productId, String productName, String username, Integer rating, String comment) {
+        this.reviewId = reviewId;
+        this.productId = productId;
+        this.productName = productName;
+        this.username = username;
+        this.rating = rating;
+        this.comment = comment;
+    }
+}
@@ -2,18 +2,28 @@ package com.niket.productreviewsystem.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.List; // Required for List<ReviewVote> and List<ReviewReport>
 
 @Entity
 @Table(name = "reviews", indexes = {
         @Index(name = "idx_product_id", columnList = "product_id"),
-        @Index(name = "idx_rating_date", columnList = "rating, reviewDate")
+        @Index(name = "idx_rating_date", columnList = "rating, reviewDate"),
+        // Composite indexes backing the keyset pagination queries in ReviewRepository (one per sort order)
+        @Index(name = "idx_product_date_id", columnList = "product_id, reviewDate, id"),
+        @Index(name = "idx_product_helpful_score_id", columnList = "product_id, helpful_score, id"),
+        @Index(name = "idx_product_rating_id", columnList = "product_id, rating, id"),
+        // Keyset order of the report moderation queue (ReviewReportRepository)
+        @Index(name = "idx_pending_reports_id", columnList = "pending_reports, id")
 })
 @Data
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "review_ids")
+    @TableGenerator(name = "review_ids", table = IdGenerators.ID_TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN, valueColumnName = IdGenerators.NEXT_ID_COLUMN,
+            pkColumnValue = IdGenerators.REVIEWS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,8 +40,18 @@ public class Review {
     @Lob
     private String comment;
 
+    // Public path of the image; only set once the upload is processed (see imageStatus)
     private String imagePath;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImageStatus imageStatus;
+
+    // Resized JPEG variants of imagePath (see ImageVariantService); null for images uploaded before they existed
+    private String thumbnailPath;
+
+    private String previewPath;
+
     @Column(nullable = false)
     private LocalDateTime reviewDate = LocalDateTime.now();
 
@@ -40,6 +60,16 @@ public class Review {
     @Column(name = "helpful_votes", nullable = false)
     private int helpfulVotes = 0;
 
+    // "Most Helpful" ranking (see HelpfulScore): set on insert, moved with every vote flush, repaired by HelpfulScoreService
+    @ColumnDefault("0")
+    @Column(name = "helpful_score", nullable = false)
+    private double helpfulScore;
+
+    // Unprocessed reports on this review: moved by ReviewReportService on submit and on processing, repaired by its reconcile job
+    @ColumnDefault("0")
+    @Column(name = "pending_reports", nullable = false)
+    private int pendingReports;
+
     // ==========================================================
     // CRITICAL FIX 1: Relationship to ReviewVote with CASCADE
     // This fixes the FK constraint error for the 'review_votes' table.
@@ -62,6 +92,11 @@ public class Review {
 
     // ==========================================================
 
+    @PrePersist
+    void initHelpfulScore() {
+        helpfulScore = HelpfulScore.of(helpfulVotes, reviewDate);
+    }
+
     public int getHelpfulVotes() {
         return helpfulVotes;
     }
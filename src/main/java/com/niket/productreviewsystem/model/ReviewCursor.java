@@ -0,0 +1,100 @@
+package com.niket.productreviewsystem.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque position marker for keyset (seek) pagination of a product's reviews.
+ * It holds the (sort key, id) tuple of the last review shown, so the next page starts
+ * with "WHERE (key, id) comes after (cursor.key, cursor.id)" instead of an OFFSET.
+ * Encoded as URL-safe Base64 so clients treat it as an opaque token.
+ */
+public class ReviewCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final String sortKey;
+    private final Long id;
+
+    private ReviewCursor(String sort, String sortKey, Long id) {
+        this.sort = sort;
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * Builds the cursor pointing just after the given review for the given sort order.
+     */
+    public static ReviewCursor after(ReviewDisplayDTO review, String sort) {
+        String key = switch (sort) {
+            case "helpful" -> String.valueOf(review.getHelpfulScore());
+            case "highest", "lowest" -> String.valueOf(review.getRating());
+            default -> review.getReviewDate().toString();
+        };
+        return new ReviewCursor(sort, key, review.getId());
+    }
+
+    /**
+     * Builds a cursor from an explicit (sort key, id) pair, for keyset lists whose rows are not
+     * ReviewDisplayDTOs (the report moderation queue is keyed by report count and review id).
+     */
+    public static ReviewCursor of(String sort, Object sortKey, Long id) {
+        return new ReviewCursor(sort, String.valueOf(sortKey), id);
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}. The sort order must match the one the
+     * cursor was issued for, otherwise the position would be meaningless.
+     */
+    public static ReviewCursor decode(String token, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("Cursor does not match sort order");
+            }
+            ReviewCursor cursor = new ReviewCursor(parts[0], parts[1], Long.parseLong(parts[2]));
+            // Validate the key eagerly so a tampered token fails here, not inside the query
+            switch (cursor.sort) {
+                case "newest" -> cursor.getDateKey();
+                case "helpful" -> cursor.getScoreKey();
+                default -> cursor.getIntKey();
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid review cursor.", e);
+        }
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getDateKey() {
+        return LocalDateTime.parse(sortKey);
+    }
+
+    public int getIntKey() {
+        return Integer.parseInt(sortKey);
+    }
+
+    // Double.toString round-trips exactly, so the seek condition matches the stored score
+    public double getScoreKey() {
+        double score = Double.parseDouble(sortKey);
+        if (!Double.isFinite(score)) {
+            throw new IllegalArgumentException("Invalid score key");
+        }
+        return score;
+    }
+}
@@ -0,0 +1,37 @@
+package com.niket.productreviewsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a review with exactly the columns product-detail.html renders.
+ * Built by a JPQL constructor expression (ReviewRepository), so the author's username comes
+ * from the same joined query instead of a lazy load of Review.user per row.
+ */
+@Data
+@AllArgsConstructor
+public class ReviewDisplayDTO {
+
+    private Long id;
+
+    private String username;
+
+    private Integer rating;
+
+    private String comment;
+
+    private String imagePath;
+
+    private String thumbnailPath;
+
+    private LocalDateTime reviewDate;
+
+    private boolean verifiedPurchase;
+
+    private int helpfulVotes;
+
+    // Sort key of the "helpful" order, carried for the keyset cursor
+    private double helpfulScore;
+}
@@ -0,0 +1,71 @@
+package com.niket.productreviewsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One bulk review import (see ReviewImportService). 'checkpoint' is the number of source records
+ * already handled (imported or rejected); it moves in the same transaction as each chunk, so a job
+ * that stops for any reason can be resumed from there without importing a record twice.
+ */
+@Entity
+@Table(name = "review_import_jobs")
+@Data
+public class ReviewImportJob {
+
+    public enum Format { CSV, NDJSON }
+
+    public enum Status {
+        QUEUED,      // Waiting for the import worker
+        RUNNING,     // Being imported
+        COMPLETED,   // Every record handled
+        FAILED,      // Stopped on an error; can be resumed from the checkpoint
+        INTERRUPTED  // Was running when the application stopped; can be resumed from the checkpoint
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Format format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.QUEUED;
+
+    // Name shown to admins (upload name or inbox file name)
+    @Column(nullable = false)
+    private String fileName;
+
+    // File the job reads; uploads are copied under the imports directory first
+    @Column(nullable = false, length = 1000)
+    private String sourcePath;
+
+    // Uploaded copies are deleted once the job completes; inbox files are left in place
+    private boolean deleteSourceWhenDone;
+
+    private String createdBy;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private long checkpoint;
+
+    @Column(nullable = false)
+    private long importedCount;
+
+    @Column(nullable = false)
+    private long rejectedCount;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,45 @@
+package com.niket.productreviewsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A source record an import job did not load, with the reason; downloadable as the job's rejected-row report.
+ */
+@Entity
+@Table(name = "review_import_rejections", indexes = {
+        @Index(name = "idx_import_rejection_job", columnList = "job_id, record_number")
+})
+@Data
+@NoArgsConstructor
+public class ReviewImportRejection {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "review_import_rejection_ids")
+    @TableGenerator(name = "review_import_rejection_ids", table = IdGenerators.ID_TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN, valueColumnName = IdGenerators.NEXT_ID_COLUMN,
+            pkColumnValue = IdGenerators.REVIEW_IMPORT_REJECTIONS, allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    // 1-based position of the record in the source file (header excluded)
+    @Column(name = "record_number", nullable = false)
+    private long recordNumber;
+
+    @Column(nullable = false, length = 500)
+    private String reason;
+
+    // The record as it appeared in the file, cut at ReviewRecordReader.MAX_KEPT_CHARS
+    @Lob
+    private String record;
+
+    public ReviewImportRejection(Long jobId, long recordNumber, String reason, String record) {
+        this.jobId = jobId;
+        this.recordNumber = recordNumber;
+        this.reason = reason.length() > 500 ? reason.substring(0, 500) : reason;
+        this.record = record;
+    }
+}
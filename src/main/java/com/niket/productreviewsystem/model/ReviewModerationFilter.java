@@ -0,0 +1,37 @@
+package com.niket.productreviewsystem.model;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the admin moderation view (bound from query parameters).
+ * Every field is optional; a null field means "no restriction".
+ */
+@Data
+public class ReviewModerationFilter {
+
+    private Long productId;
+
+    private Integer rating;
+
+    private Boolean hasImage;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fromDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate toDate;
+
+    // Inclusive lower bound on reviewDate (start of 'fromDate')
+    public LocalDateTime getFromDateTime() {
+        return fromDate != null ? fromDate.atStartOfDay() : null;
+    }
+
+    // Exclusive upper bound on reviewDate (start of the day after 'toDate', so 'toDate' itself is included)
+    public LocalDateTime getToDateTimeExclusive() {
+        return toDate != null ? toDate.plusDays(1).atStartOfDay() : null;
+    }
+}
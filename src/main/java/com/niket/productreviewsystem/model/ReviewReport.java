@@ -4,11 +4,19 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "review_reports")
+@Table(name = "review_reports", indexes = {
+        // Pending reports of a review: reason breakdown of the moderation queue and the pending_reports repair
+        @Index(name = "idx_report_pending_review", columnList = "is_processed, review_id, report_date"),
+        // Duplicate check on every report submission (existsByReporterIdAndReviewId)
+        @Index(name = "idx_report_reporter_review", columnList = "reporter_user_id, review_id")
+})
 public class ReviewReport {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "review_report_ids")
+    @TableGenerator(name = "review_report_ids", table = IdGenerators.ID_TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN, valueColumnName = IdGenerators.NEXT_ID_COLUMN,
+            pkColumnValue = IdGenerators.REVIEW_REPORTS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     // The review being reported
@@ -0,0 +1,35 @@
+package com.niket.productreviewsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a review matched by full-text search (review-search.html).
+ * Carries the product as well, since catalog-wide results mix reviews of many products.
+ */
+@Data
+@AllArgsConstructor
+public class ReviewSearchResultDTO {
+
+    private Long id;
+
+    private Long productId;
+
+    private String productName;
+
+    private String username;
+
+    private Integer rating;
+
+    private String comment;
+
+    private String imagePath;
+
+    private String thumbnailPath;
+
+    private LocalDateTime reviewDate;
+
+    private int helpfulVotes;
+}
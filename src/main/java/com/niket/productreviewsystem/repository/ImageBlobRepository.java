@@ -0,0 +1,30 @@
+package com.niket.productreviewsystem.repository;
+
+import com.niket.productreviewsystem.model.ImageBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    // Row lock serializing reference changes and file removal for one blob
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ImageBlob b WHERE b.digest = :digest")
+    Optional<ImageBlob> findForUpdate(@Param("digest") String digest);
+
+    // Drops one reference; never below zero
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now WHERE b.digest = :digest AND b.refCount > 0")
+    int release(@Param("digest") String digest, @Param("now") LocalDateTime now);
+
+    // Sweeper candidates (served by idx_blob_refcount_updated)
+    @Query("SELECT b.digest FROM ImageBlob b WHERE b.refCount = 0 AND b.updatedAt < :cutoff")
+    List<String> findUnreferencedSince(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,41 @@
+package com.niket.productreviewsystem.repository;
+
+import com.niket.productreviewsystem.model.ProductRatingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, Long> {
+
+    // Atomic in-place adjustment of the aggregate row; 'delta' is +1 for a new review and -1 for a removed one.
+    // Returns the number of rows touched (0 means the product has no aggregate row yet).
+    @Modifying
+    @Query("UPDATE ProductRatingStats s SET " +
+            "s.reviewCount = s.reviewCount + :delta, " +
+            "s.ratingSum = s.ratingSum + (:delta * :rating), " +
+            "s.star1Count = s.star1Count + (CASE WHEN :rating = 1 THEN :delta ELSE 0 END), " +
+            "s.star2Count = s.star2Count + (CASE WHEN :rating = 2 THEN :delta ELSE 0 END), " +
+            "s.star3Count = s.star3Count + (CASE WHEN :rating = 3 THEN :delta ELSE 0 END), " +
+            "s.star4Count = s.star4Count + (CASE WHEN :rating = 4 THEN :delta ELSE 0 END), " +
+            "s.star5Count = s.star5Count + (CASE WHEN :rating = 5 THEN :delta ELSE 0 END) " +
+            "WHERE s.productId = :productId")
+    int applyRatingDelta(@Param("productId") Long productId, @Param("rating") int rating, @Param("delta") long delta);
+
+    // Creates the product's all-zero aggregate row unless it exists. INSERT IGNORE, so concurrent first reviews
+    // do not fail on the primary key: a second insert waits for the first and is then ignored.
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO product_rating_stats (product_id, review_count, rating_sum, " +
+            "star1_count, star2_count, star3_count, star4_count, star5_count) VALUES (:productId, 0, 0, 0, 0, 0, 0, 0)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("productId") Long productId);
+
+    // Row-locked read used by the reconciliation job so concurrent review writes queue behind the rebuild
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductRatingStats s WHERE s.productId = :productId")
+    Optional<ProductRatingStats> findForUpdate(@Param("productId") Long productId);
+}
@@ -0,0 +1,48 @@
+package com.niket.productreviewsystem.repository;
+
+import com.niket.productreviewsystem.model.ReviewImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReviewImportJobRepository extends JpaRepository<ReviewImportJob, Long> {
+
+    // Most recent jobs for the admin imports page
+    List<ReviewImportJob> findTop20ByOrderByIdDesc();
+
+    // Moves a job to 'status' only if it is currently in one of 'from'; returns 0 if another request got there first
+    @Modifying
+    @Query("UPDATE ReviewImportJob j SET j.status = :status WHERE j.id = :id AND j.status IN :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") Collection<ReviewImportJob.Status> from,
+                   @Param("status") ReviewImportJob.Status status);
+
+    // QUEUED -> RUNNING, done by the import worker before it reads the file
+    @Modifying
+    @Query("UPDATE ReviewImportJob j SET j.status = 'RUNNING', j.startedAt = :now, j.finishedAt = NULL, j.lastError = NULL " +
+            "WHERE j.id = :id AND j.status = 'QUEUED'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Advances the checkpoint past one chunk; runs in the chunk's own transaction
+    @Modifying
+    @Query("UPDATE ReviewImportJob j SET j.checkpoint = :checkpoint, " +
+            "j.importedCount = j.importedCount + :imported, j.rejectedCount = j.rejectedCount + :rejected " +
+            "WHERE j.id = :id")
+    int recordChunk(@Param("id") Long id, @Param("checkpoint") long checkpoint,
+                    @Param("imported") long imported, @Param("rejected") long rejected);
+
+    @Modifying
+    @Query("UPDATE ReviewImportJob j SET j.status = :status, j.finishedAt = :now, j.lastError = :error WHERE j.id = :id")
+    int finish(@Param("id") Long id, @Param("status") ReviewImportJob.Status status,
+               @Param("now") LocalDateTime now, @Param("error") String error);
+
+    // Startup: jobs that were queued or running when the application stopped
+    @Modifying
+    @Query("UPDATE ReviewImportJob j SET j.status = 'INTERRUPTED' WHERE j.status IN ('QUEUED', 'RUNNING')")
+    int markUnfinishedAsInterrupted();
+}
@@ -0,0 +1,22 @@
+package com.niket.productreviewsystem.repository;
+
+import com.niket.productreviewsystem.model.ReviewImportRejection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
+
+public interface ReviewImportRejectionRepository extends JpaRepository<ReviewImportRejection, Long> {
+
+    // (record number, reason, record) rows of one job's rejected-row report, in file order, read forward-only
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.recordNumber, r.reason, r.record FROM ReviewImportRejection r WHERE r.jobId = :jobId ORDER BY r.recordNumber")
+    Stream<Object[]> streamReportByJobId(@Param("jobId") Long jobId);
+}
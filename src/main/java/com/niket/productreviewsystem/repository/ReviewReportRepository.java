@@ -1,17 +1,56 @@
 package com.niket.productreviewsystem.repository;
 
+import com.niket.productreviewsystem.model.ReportedReviewDTO;
 import com.niket.productreviewsystem.model.ReviewReport;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewReportRepository extends JpaRepository<ReviewReport, Long> {
 
-    // MODIFIED QUERY: Fetching Review, Product, AND Reporter (User) details.
-    @Query("SELECT r FROM ReviewReport r JOIN FETCH r.review rev JOIN FETCH rev.product prod JOIN FETCH r.reporter rep WHERE r.isProcessed = false ORDER BY r.reportDate DESC")
-    List<ReviewReport> findPendingReportsWithDetails();
-
     // Check if a specific user has already reported this review
     boolean existsByReporterIdAndReviewId(Long reporterId, Long reviewId);
-}
\ No newline at end of file
+
+    // --- Moderation queue: reviews with pending reports, most reported first ---
+    // Rows are (reviewId, pending report count). The count is the maintained reviews.pending_reports column,
+    // so both pages seek on idx_pending_reports_id and read only the rows they return.
+
+    @Query("SELECT r.id, r.pendingReports FROM Review r WHERE r.pendingReports > 0 " +
+            "ORDER BY r.pendingReports DESC, r.id DESC")
+    Slice<Object[]> findPendingGroupsFirstPage(Pageable pageable);
+
+    @Query("SELECT r.id, r.pendingReports FROM Review r WHERE r.pendingReports > 0 " +
+            "AND (r.pendingReports < :reportCount OR (r.pendingReports = :reportCount AND r.id < :reviewId)) " +
+            "ORDER BY r.pendingReports DESC, r.id DESC")
+    Slice<Object[]> findPendingGroupsAfter(@Param("reportCount") int reportCount,
+                                           @Param("reviewId") Long reviewId,
+                                           Pageable pageable);
+
+    // Display columns of the reviews on one queue page (no votes, images or report collections)
+    @Query("SELECT new com.niket.productreviewsystem.model.ReportedReviewDTO(" +
+            "rev.id, p.id, p.name, u.username, rev.rating, rev.comment) " +
+            "FROM Review rev JOIN rev.product p JOIN rev.user u WHERE rev.id IN :reviewIds")
+    List<ReportedReviewDTO> findQueueDetails(@Param("reviewIds") Collection<Long> reviewIds);
+
+    // Rows are (reviewId, reason, count, latest report date) of the pending reports of one queue page
+    @Query("SELECT rr.review.id, rr.reason, COUNT(rr), MAX(rr.reportDate) FROM ReviewReport rr " +
+            "WHERE rr.review.id IN :reviewIds AND rr.isProcessed = false " +
+            "GROUP BY rr.review.id, rr.reason ORDER BY COUNT(rr) DESC")
+    List<Object[]> countPendingReasons(@Param("reviewIds") Collection<Long> reviewIds);
+
+    // Closes every pending report of a review in one statement; returns the number of reports closed
+    @Modifying
+    @Query("UPDATE ReviewReport rr SET rr.isProcessed = true WHERE rr.review.id = :reviewId AND rr.isProcessed = false")
+    int markPendingProcessed(@Param("reviewId") Long reviewId);
+
+    // Set-based removal of the reports on reviews that are about to be deleted (AdminService bulk deletes)
+    @Modifying
+    @Query("DELETE FROM ReviewReport rr WHERE rr.review.id IN :reviewIds")
+    int deleteByReviewIdIn(@Param("reviewIds") Collection<Long> reviewIds);
+}
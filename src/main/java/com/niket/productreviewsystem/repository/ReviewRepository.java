@@ -1,12 +1,33 @@
 package com.niket.productreviewsystem.repository;
 
+import com.niket.productreviewsystem.model.AdminReviewDTO;
+import com.niket.productreviewsystem.model.ImageStatus;
 import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.ReviewDisplayDTO;
+import com.niket.productreviewsystem.model.ReviewSearchResultDTO;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    // Constructor expression shared by every product-page query: only the rendered columns, author joined in
+    String DISPLAY_COLUMNS = "new com.niket.productreviewsystem.model.ReviewDisplayDTO(" +
+            "r.id, u.username, r.rating, r.comment, r.imagePath, r.thumbnailPath, r.reviewDate, r.verifiedPurchase, r.helpfulVotes, r.helpfulScore)";
+
     long countByProductId(Long productId);
 
     List<Review> findByProductIdOrderByHelpfulVotesDesc(Long productId);
@@ -19,9 +40,149 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     List<Review> findByProductId(Long productId);
 
-    // Method used by getPaginatedReviewsByProductId
-    Page<Review> findByProductId(Long productId, Pageable pageable);
+    // Method used by getPaginatedReviewsByProductId (offset mode); the Pageable's Sort is applied to alias 'r'
+    @Query(value = "SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId",
+            countQuery = "SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId")
+    Page<ReviewDisplayDTO> findDisplayByProductId(@Param("productId") Long productId, Pageable pageable);
+
+    // ==========================================================
+    // Admin moderation view: paged + filtered, and a forward-only stream for exports.
+    // Rows carry product name and author from the same query (no per-row lazy loads).
+    // A null filter parameter disables that condition.
+    // ==========================================================
+
+    String MODERATION_COLUMNS = "new com.niket.productreviewsystem.model.AdminReviewDTO(" +
+            "r.id, p.id, p.name, u.username, r.rating, r.comment, r.imagePath, r.reviewDate, r.verifiedPurchase)";
+
+    String MODERATION_FILTER = "(:productId IS NULL OR r.product.id = :productId) " +
+            "AND (:rating IS NULL OR r.rating = :rating) " +
+            "AND (:hasImage IS NULL OR (:hasImage = TRUE AND r.imagePath IS NOT NULL) OR (:hasImage = FALSE AND r.imagePath IS NULL)) " +
+            "AND (:fromDate IS NULL OR r.reviewDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR r.reviewDate < :toDate)";
+
+    @Query(value = "SELECT " + MODERATION_COLUMNS + " FROM Review r JOIN r.product p JOIN r.user u WHERE " + MODERATION_FILTER,
+            countQuery = "SELECT COUNT(r) FROM Review r WHERE " + MODERATION_FILTER)
+    Page<AdminReviewDTO> findForModeration(@Param("productId") Long productId,
+                                           @Param("rating") Integer rating,
+                                           @Param("hasImage") Boolean hasImage,
+                                           @Param("fromDate") LocalDateTime fromDate,
+                                           @Param("toDate") LocalDateTime toDate,
+                                           Pageable pageable);
+
+    // Forward-only walk for CSV export: rows are pulled from the driver in fetch-size chunks
+    // (MySQL needs useCursorFetch=true on the JDBC URL for a server-side cursor), and
+    // constructor-expression results are never added to the persistence context, so memory stays flat.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT " + MODERATION_COLUMNS + " FROM Review r JOIN r.product p JOIN r.user u WHERE " + MODERATION_FILTER + " ORDER BY r.id")
+    Stream<AdminReviewDTO> streamForModeration(@Param("productId") Long productId,
+                                               @Param("rating") Integer rating,
+                                               @Param("hasImage") Boolean hasImage,
+                                               @Param("fromDate") LocalDateTime fromDate,
+                                               @Param("toDate") LocalDateTime toDate);
 
     // Method to check if a user has reviewed a product before submitting a new review
     boolean existsByUserIdAndProductId(Long userId, Long productId);
+
+    // (user id, product id) pairs that already have a review, for one import chunk's duplicate check
+    @Query("SELECT r.user.id, r.product.id FROM Review r WHERE r.user.id IN :userIds AND r.product.id IN :productIds")
+    List<Object[]> findUserProductPairs(@Param("userIds") Collection<Long> userIds, @Param("productIds") Collection<Long> productIds);
+
+    // Grouped (rating, count) rows used to rebuild a product's row in product_rating_stats (served by idx_product_id)
+    @Query("SELECT r.rating, COUNT(r) FROM Review r WHERE r.product.id = :productId GROUP BY r.rating")
+    List<Object[]> countRatingsByProductId(@Param("productId") Long productId);
+
+    // ==========================================================
+    // Full-text search (see ReviewSearchService): the index returns ranked ids, these load the rows
+    // ==========================================================
+
+    @Query("SELECT new com.niket.productreviewsystem.model.ReviewSearchResultDTO(" +
+            "r.id, p.id, p.name, u.username, r.rating, r.comment, r.imagePath, r.thumbnailPath, r.reviewDate, r.helpfulVotes) " +
+            "FROM Review r JOIN r.product p JOIN r.user u WHERE r.id IN :ids")
+    List<ReviewSearchResultDTO> findSearchResultsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // One chunk of (id, product id, comment) rows for a bulk index rebuild, walking the primary key
+    @Query("SELECT r.id, r.product.id, r.comment FROM Review r WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // One chunk of (id, helpful votes, review date, stored score) rows for the helpful score repair job
+    @Query("SELECT r.id, r.helpfulVotes, r.reviewDate, r.helpfulScore FROM Review r WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findHelpfulScoreInputsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Image references held by a product's reviews, released when the product is deleted
+    @Query("SELECT r.imagePath FROM Review r WHERE r.product.id = :productId AND r.imagePath IS NOT NULL")
+    List<String> findImagePathsByProductId(@Param("productId") Long productId);
+
+    // --- Bulk deletion (AdminService): children are removed first with set-based deletes, no entity is loaded ---
+
+    // (id, product id, rating, image path) of the reviews about to be deleted. The rows stay locked until commit,
+    // so a vote or report inserted concurrently waits instead of slipping in between the child and parent deletes.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r.id, r.product.id, r.rating, r.imagePath FROM Review r WHERE r.id IN :ids")
+    List<Object[]> findDeletionInfoForUpdate(@Param("ids") Collection<Long> ids);
+
+    // One chunk of a user's review ids, oldest first
+    @Query("SELECT r.id FROM Review r WHERE r.user.id = :userId ORDER BY r.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Moves the pending report count of a review (see ReviewReportService); returns 0 if the review does not exist
+    @Modifying
+    @Query("UPDATE Review r SET r.pendingReports = r.pendingReports + :delta WHERE r.id = :id")
+    int addPendingReports(@Param("id") Long id, @Param("delta") int delta);
+
+    // Result of the asynchronous image processing (see ImageUploadService); returns 0 if the review was deleted meanwhile
+    @Modifying
+    @Query("UPDATE Review r SET r.imageStatus = :status, r.imagePath = :imagePath, " +
+            "r.thumbnailPath = :thumbnailPath, r.previewPath = :previewPath WHERE r.id = :id")
+    int updateImage(@Param("id") Long id, @Param("status") ImageStatus status, @Param("imagePath") String imagePath,
+                    @Param("thumbnailPath") String thumbnailPath, @Param("previewPath") String previewPath);
+
+    // ==========================================================
+    // Keyset (seek) pagination: one pair of queries per sort order.
+    // The first page has no cursor; later pages continue strictly after the (sort key, id) of the
+    // last row shown. Returning Slice means no count(*) query, and each ORDER BY matches one of
+    // the composite indexes declared on Review, so MySQL reads only 'size + 1' index entries.
+    // ==========================================================
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId ORDER BY r.reviewDate DESC, r.id DESC")
+    Slice<ReviewDisplayDTO> findNewestFirstPage(@Param("productId") Long productId, Pageable pageable);
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId " +
+            "AND (r.reviewDate < :reviewDate OR (r.reviewDate = :reviewDate AND r.id < :id)) " +
+            "ORDER BY r.reviewDate DESC, r.id DESC")
+    Slice<ReviewDisplayDTO> findNewestAfter(@Param("productId") Long productId, @Param("reviewDate") LocalDateTime reviewDate,
+                                  @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId ORDER BY r.helpfulScore DESC, r.id DESC")
+    Slice<ReviewDisplayDTO> findHelpfulFirstPage(@Param("productId") Long productId, Pageable pageable);
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId " +
+            "AND (r.helpfulScore < :score OR (r.helpfulScore = :score AND r.id < :id)) " +
+            "ORDER BY r.helpfulScore DESC, r.id DESC")
+    Slice<ReviewDisplayDTO> findHelpfulAfter(@Param("productId") Long productId, @Param("score") double score,
+                                   @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId ORDER BY r.rating DESC, r.id DESC")
+    Slice<ReviewDisplayDTO> findHighestFirstPage(@Param("productId") Long productId, Pageable pageable);
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId " +
+            "AND (r.rating < :rating OR (r.rating = :rating AND r.id < :id)) " +
+            "ORDER BY r.rating DESC, r.id DESC")
+    Slice<ReviewDisplayDTO> findHighestAfter(@Param("productId") Long productId, @Param("rating") int rating,
+                                   @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId ORDER BY r.rating ASC, r.id ASC")
+    Slice<ReviewDisplayDTO> findLowestFirstPage(@Param("productId") Long productId, Pageable pageable);
+
+    @Query("SELECT " + DISPLAY_COLUMNS + " FROM Review r JOIN r.user u WHERE r.product.id = :productId " +
+            "AND (r.rating > :rating OR (r.rating = :rating AND r.id > :id)) " +
+            "ORDER BY r.rating ASC, r.id ASC")
+    Slice<ReviewDisplayDTO> findLowestAfter(@Param("productId") Long productId, @Param("rating") int rating,
+                                  @Param("id") Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -2,10 +2,20 @@ package com.niket.productreviewsystem.repository;
 
 import com.niket.productreviewsystem.model.ReviewVote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.Optional;
 
 public interface ReviewVoteRepository extends JpaRepository<ReviewVote, Long> {
 
     // Custom query method: checks if a vote already exists for this user and review
     Optional<ReviewVote> findByUserIdAndReviewId(Long userId, Long reviewId);
+
+    // Set-based removal of the votes on reviews that are about to be deleted (AdminService bulk deletes)
+    @Modifying
+    @Query("DELETE FROM ReviewVote v WHERE v.review.id IN :reviewIds")
+    int deleteByReviewIdIn(@Param("reviewIds") Collection<Long> reviewIds);
 }
\ No newline at end of file
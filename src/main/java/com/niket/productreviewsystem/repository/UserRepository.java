@@ -2,9 +2,26 @@ package com.niket.productreviewsystem.repository;
 
 import com.niket.productreviewsystem.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Login: user and roles in a single joined select (instead of the user, then the eager roles)
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.username = :username")
+    Optional<User> findWithRolesByUsername(@Param("username") String username);
+
+    // Only the id, for principals that do not carry it (see CurrentUserService)
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    // (username, id) pairs for a batch of usernames, without loading the users or their eager roles (review imports)
+    @Query("SELECT u.username, u.id FROM User u WHERE u.username IN :usernames")
+    List<Object[]> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
     Boolean existsByUsername(String username);
 }
\ No newline at end of file
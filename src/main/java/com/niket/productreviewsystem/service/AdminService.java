@@ -1,13 +1,34 @@
 package com.niket.productreviewsystem.service;
 
-import com.niket.productreviewsystem.model.Review;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.niket.productreviewsystem.model.AdminReviewDTO;
+import com.niket.productreviewsystem.model.ReviewModerationFilter;
+import com.niket.productreviewsystem.repository.ReviewReportRepository;
 import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.ReviewVoteRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @Service
 public class AdminService {
@@ -15,14 +36,139 @@ public class AdminService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
+    @Autowired
+    private ImageBlobStore imageBlobStore;
+
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @Autowired
+    private ReviewVoteRepository reviewVoteRepository;
+
+    @Autowired
+    private ReviewReportRepository reviewReportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Rows written between two flushes of the export stream
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
+    // Reviews deleted per transaction by the bulk actions; bounds both the IN lists and the lock footprint
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     /**
-     * Gets all reviews from the system (for moderation purposes).
+     * Gets one page of reviews for moderation, narrowed by the optional filters.
      * In a real system, this would filter for 'PENDING' status.
-     * For now, we fetch all reviews.
+     * Projection query: product name and username are joined in, no per-row lazy loads.
+     */
+    public Page<AdminReviewDTO> getReviewsForModeration(ReviewModerationFilter filter, Pageable pageable) {
+        return reviewRepository.findForModeration(
+                filter.getProductId(),
+                filter.getRating(),
+                filter.getHasImage(),
+                filter.getFromDateTime(),
+                filter.getToDateTimeExclusive(),
+                pageable);
+    }
+
+    /**
+     * Streams every review matching the filters to the given output as CSV.
+     * Rows are read through a forward-only cursor and written out in chunks, so memory use
+     * does not depend on the size of the 'reviews' table. The product_id, user, rating, comment,
+     * review_date and verified_purchase columns are what ReviewImportService reads back.
      */
-    public List<Review> getAllReviews() {
-        // Find all reviews and sort them by ID (oldest first) for consistent viewing
-        return reviewRepository.findAll();
+    @Transactional(readOnly = true) // The stream needs an open connection until it is fully consumed
+    public long exportReviewsAsCsv(ReviewModerationFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,product,user,rating,has_image,comment,product_id,review_date,verified_purchase\n");
+
+        long rows = 0;
+        try (Stream<AdminReviewDTO> stream = reviewRepository.streamForModeration(
+                filter.getProductId(),
+                filter.getRating(),
+                filter.getHasImage(),
+                filter.getFromDateTime(),
+                filter.getToDateTimeExclusive())) {
+
+            Iterator<AdminReviewDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                AdminReviewDTO review = iterator.next();
+                writer.write(review.getId() + ","
+                        + csv(review.getProductName()) + ","
+                        + csv(review.getUsername()) + ","
+                        + review.getRating() + ","
+                        + (review.getImagePath() != null) + ","
+                        + csv(review.getComment()) + ","
+                        + review.getProductId() + ","
+                        + review.getReviewDate() + ","
+                        + review.isVerifiedPurchase() + "\n");
+
+                if (++rows % EXPORT_CHUNK_SIZE == 0) {
+                    writer.flush(); // Push the chunk to the client instead of buffering the whole export
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Same export as exportReviewsAsCsv, as NDJSON: one JSON object per review and line, importable as is.
+     */
+    @Transactional(readOnly = true)
+    public long exportReviewsAsNdjson(ReviewModerationFilter filter, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        json.setRootValueSeparator(null); // Objects are separated by the line breaks written below
+
+        long rows = 0;
+        try (Stream<AdminReviewDTO> stream = reviewRepository.streamForModeration(
+                filter.getProductId(),
+                filter.getRating(),
+                filter.getHasImage(),
+                filter.getFromDateTime(),
+                filter.getToDateTimeExclusive())) {
+
+            Iterator<AdminReviewDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                AdminReviewDTO review = iterator.next();
+                json.writeStartObject();
+                json.writeNumberField("id", review.getId());
+                json.writeNumberField("product_id", review.getProductId());
+                json.writeStringField("product", review.getProductName());
+                json.writeStringField("user", review.getUsername());
+                json.writeNumberField("rating", review.getRating());
+                json.writeStringField("comment", review.getComment());
+                json.writeBooleanField("has_image", review.getImagePath() != null);
+                json.writeStringField("review_date", String.valueOf(review.getReviewDate()));
+                json.writeBooleanField("verified_purchase", review.isVerifiedPurchase());
+                json.writeEndObject();
+                json.writeRaw('\n');
+
+                if (++rows % EXPORT_CHUNK_SIZE == 0) {
+                    json.flush();
+                }
+            }
+        }
+        json.flush();
+        return rows;
+    }
+
+    // Quotes a CSV field (RFC 4180): wrap in double quotes and double any embedded quote
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
     }
 
     /**
@@ -31,9 +177,7 @@ public class AdminService {
      */
     @Transactional // Ensure atomicity of the operation
     public void moderateReview(Long reviewId, boolean isApproved) {
-        Optional<Review> optionalReview = reviewRepository.findById(reviewId);
-
-        if (optionalReview.isEmpty()) {
+        if (!reviewRepository.existsById(reviewId)) {
             throw new RuntimeException("Review not found with ID: " + reviewId);
         }
 
@@ -42,8 +186,76 @@ public class AdminService {
             // For now, approval is a NO-OP since all submitted reviews are immediately displayed.
             // We just ensure the review exists.
         } else {
-            // Reject: Delete the review permanently
-            reviewRepository.delete(optionalReview.get());
+            // Reject: Delete the review permanently (same set-based path as the bulk actions)
+            deleteReviewChunk(List.of(reviewId));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes the given reviews, DELETE_CHUNK_SIZE per transaction. Ids that no longer exist are skipped.
+     * Returns the number of reviews deleted.
+     */
+    public int deleteReviews(Collection<Long> reviewIds) {
+        List<Long> ids = reviewIds.stream().filter(Objects::nonNull).distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+            deleted += transactionTemplate.execute(status -> deleteReviewChunk(chunk));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every review written by the given user, DELETE_CHUNK_SIZE per transaction.
+     * Returns the number of reviews deleted.
+     */
+    public int purgeReviewsByUser(String username) {
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+
+        int deleted = 0;
+        List<Long> chunk;
+        do {
+            chunk = reviewRepository.findIdsByUserId(userId, PageRequest.of(0, DELETE_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Long> ids = chunk;
+            deleted += transactionTemplate.execute(status -> deleteReviewChunk(ids));
+        } while (chunk.size() == DELETE_CHUNK_SIZE);
+        return deleted;
+    }
+
+    // Deletes one chunk of reviews in dependency order (votes, reports, reviews) with one statement each,
+    // then applies the side effects: rating aggregates, image references and the search index.
+    // Runs inside the caller's transaction.
+    private int deleteReviewChunk(List<Long> reviewIds) {
+        // 1. Lock the reviews and read what the side effects need
+        List<Object[]> rows = reviewRepository.findDeletionInfoForUpdate(reviewIds);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+
+        // 2. Children first, then the reviews; Review.votes and Review.reports are never loaded
+        reviewVoteRepository.deleteByReviewIdIn(ids);
+        reviewReportRepository.deleteByReviewIdIn(ids);
+        int deleted = reviewRepository.deleteByIdIn(ids);
+
+        // 3. One aggregate update per (product, rating) pair instead of one per review
+        Map<Long, Map<Integer, Long>> removedRatings = new HashMap<>();
+        for (Object[] row : rows) {
+            removedRatings.computeIfAbsent((Long) row[1], productId -> new HashMap<>())
+                    .merge((Integer) row[2], 1L, Long::sum);
+            if (row[3] != null) {
+                imageBlobStore.release((String) row[3]);
+            }
+        }
+        removedRatings.forEach((productId, byRating) ->
+                byRating.forEach((rating, count) -> ratingStatsService.recordReviewsRemoved(productId, rating, count)));
+
+        // 4. Search index, after commit
+        reviewSearchService.removeAfterCommit(ids);
+        return deleted;
+    }
+}
@@ -0,0 +1,44 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.AppUserDetails;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves the authenticated principal to a user id for the write paths.
+ * A session principal created at login (AppUserDetails) already holds the id, so no query is needed.
+ * Any other principal (e.g. remember-me or test authentication) falls back to an id-only lookup by username.
+ */
+@Service
+public class CurrentUserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Returns the id of the logged-in user, or throws with the given message if there is none.
+     */
+    public Long getCurrentUserId(String notFoundMessage) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new RuntimeException(notFoundMessage);
+        }
+        if (authentication.getPrincipal() instanceof AppUserDetails userDetails) {
+            return userDetails.getUserId();
+        }
+        return userRepository.findIdByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException(notFoundMessage));
+    }
+
+    /**
+     * Returns an uninitialized reference to the logged-in user, usable as the owner of new
+     * reviews, votes and reports without a select on 'users' (or the eager role join).
+     */
+    public User getCurrentUserReference(String notFoundMessage) {
+        return userRepository.getReferenceById(getCurrentUserId(notFoundMessage));
+    }
+}
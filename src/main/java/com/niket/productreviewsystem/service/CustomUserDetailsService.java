@@ -1,5 +1,6 @@
 package com.niket.productreviewsystem.service;
 
+import com.niket.productreviewsystem.model.AppUserDetails;
 import com.niket.productreviewsystem.model.Role;
 import com.niket.productreviewsystem.model.User;
 import com.niket.productreviewsystem.repository.RoleRepository; // NEW IMPORT
@@ -35,7 +36,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     // This method is called by Spring Security to retrieve user details by username
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.findWithRolesByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
         // Convert our custom roles to Spring Security GrantedAuthorities
@@ -43,8 +44,9 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .map(role -> new SimpleGrantedAuthority(role.getName().name()))
                 .collect(Collectors.toList());
 
-        // Return a Spring Security User object
-        return new org.springframework.security.core.userdetails.User(
+        // Return a Spring Security User that also carries the user id (see CurrentUserService)
+        return new AppUserDetails(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(), // The hashed password from the DB
                 authorities
@@ -8,6 +8,7 @@ import com.niket.productreviewsystem.repository.RoleRepository;
 import com.niket.productreviewsystem.repository.UserRepository;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Component
+@DependsOn("idGeneratorMigration") // id generators are aligned before the first insert
 public class DataLoader {
 
     @Autowired
@@ -0,0 +1,90 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.HelpfulScore;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch side of the "Most Helpful" ranking (reviews.helpful_score).
+ * The score is set when a review is inserted and moved incrementally by every helpful-vote flush
+ * (HelpfulVoteCounter); this nightly job recomputes it from helpful_votes and the review date to repair drift.
+ * The score does not age, so there is nothing to redo at startup; run it there once (recompute-on-startup)
+ * only to fill rows that predate the column.
+ */
+@Service
+public class HelpfulScoreService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HelpfulScoreService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    // Incremental updates add and subtract logarithms; differences below this are rounding, not drift
+    private static final double TOLERANCE = 1e-9;
+
+    // Only written if helpful_votes is still the value the score was computed from, so a vote flush
+    // that ran in between is never overwritten with a stale score
+    private static final String UPDATE_SQL = "UPDATE reviews SET helpful_score = ? WHERE id = ? AND helpful_votes = ?";
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${reviews.helpful-score.recompute-on-startup:false}")
+    private boolean recomputeOnStartup;
+
+    /**
+     * Walks the 'reviews' table by primary key and rewrites every score that differs from its recomputed value.
+     * Corrections are written one JDBC batch per chunk. Returns the number of corrected rows.
+     */
+    @Scheduled(cron = "${reviews.helpful-score.recompute-cron:0 0 4 * * *}")
+    public int recomputeAll() {
+        int checked = 0;
+        int corrected = 0;
+        long afterId = 0;
+        List<Object[]> chunk;
+        do {
+            chunk = reviewRepository.findHelpfulScoreInputsAfter(afterId, PageRequest.of(0, CHUNK_SIZE));
+            List<Object[]> updates = new ArrayList<>();
+            for (Object[] row : chunk) {
+                Long reviewId = (Long) row[0];
+                int helpfulVotes = (Integer) row[1];
+                double expected = HelpfulScore.of(helpfulVotes, (LocalDateTime) row[2]);
+                if (Math.abs(expected - (Double) row[3]) > TOLERANCE) {
+                    updates.add(new Object[]{expected, reviewId, helpfulVotes});
+                }
+                afterId = reviewId;
+            }
+            if (!updates.isEmpty()) {
+                for (int updated : jdbcTemplate.batchUpdate(UPDATE_SQL, updates)) {
+                    corrected += Math.max(updated, 0);
+                }
+            }
+            checked += chunk.size();
+        } while (chunk.size() == CHUNK_SIZE);
+
+        logger.info("Helpful score recompute finished: {} reviews checked, {} corrected.", checked, corrected);
+        return corrected;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recomputeOnStartup() {
+        if (recomputeOnStartup) {
+            recomputeAll();
+        }
+    }
+}
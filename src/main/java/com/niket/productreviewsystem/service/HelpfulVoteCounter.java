@@ -0,0 +1,169 @@
+package com.niket.productreviewsystem.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind counter for Review.helpfulVotes.
+ * <p>
+ * Votes no longer read-modify-write the review row. Each accepted vote adds +1/-1 to an in-memory
+ * delta for its review (no row lock), and a scheduled flush applies the accumulated deltas in one
+ * JDBC batch of atomic "helpful_votes = helpful_votes + ?" updates.
+ * The same statement moves helpful_score by the change in its vote term (see HelpfulScore).
+ * The ReviewVote unique constraint still decides which votes are accepted; this class only moves
+ * the counter arithmetic out of the request path. Displayed counts lag by at most one flush interval.
+ */
+@Component
+public class HelpfulVoteCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HelpfulVoteCounter.class);
+
+    // helpful_score is assigned first: MySQL evaluates SET left to right with already updated values,
+    // so this way both MySQL and standard SQL see the old helpful_votes in the score expression
+    private static final String FLUSH_SQL = "UPDATE reviews SET "
+            + "helpful_score = helpful_score - LN(1 + helpful_votes) + LN(1 + GREATEST(helpful_votes + ?, 0)), "
+            + "helpful_votes = GREATEST(helpful_votes + ?, 0) WHERE id = ?";
+
+    // Unflushed delta per review. Only non-zero deltas are kept: an entry is removed, atomically with the
+    // update that brings it to zero, so the map holds the reviews voted on since the last flush and no more
+    private final ConcurrentHashMap<Long, Long> pendingDeltas = new ConcurrentHashMap<>();
+
+    // One flush at a time. A lock rather than 'synchronized': the flush blocks on JDBC, and a virtual thread
+    // blocking inside a monitor would pin its carrier thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerGauge() {
+        Gauge.builder("votes.pending.reviews", this, HelpfulVoteCounter::getPendingReviewCount)
+                .description("Reviews with helpful-vote deltas waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a vote delta for a review. Votes arrive here already batched per review (see VoteIngestionService),
+     * so the per-key update is short and rarely contended.
+     */
+    public void add(Long reviewId, long delta) {
+        if (delta != 0) {
+            pendingDeltas.merge(reviewId, delta, HelpfulVoteCounter::sumOrRemove);
+        }
+    }
+
+    /**
+     * Records the delta once the surrounding transaction (the one inserting/deleting the ReviewVote row)
+     * has committed, so a rolled-back vote is never counted. Without a transaction it is recorded at once.
+     */
+    public void addAfterCommit(Long reviewId, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(reviewId, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(reviewId, delta);
+            }
+        });
+    }
+
+    /**
+     * Returns the not yet flushed delta for a review (0 if none).
+     */
+    public long getPendingDelta(Long reviewId) {
+        return pendingDeltas.getOrDefault(reviewId, 0L);
+    }
+
+    /**
+     * Returns the number of reviews with a non-zero unflushed delta.
+     */
+    public int getPendingReviewCount() {
+        return pendingDeltas.size();
+    }
+
+    /**
+     * Applies all pending deltas to the 'reviews' table in one batched transaction.
+     * Each review's delta is taken out of the map atomically, so votes arriving during the flush
+     * start a new entry for the next round instead of being lost.
+     */
+    @Scheduled(fixedDelayString = "${votes.flush-interval-ms:1000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Long reviewId : pendingDeltas.keySet()) {
+            // Take the entry's whole delta and remove it in one atomic step; later votes start a new entry
+            long[] drained = new long[1];
+            pendingDeltas.computeIfPresent(reviewId, (id, pending) -> {
+                drained[0] = pending;
+                return null;
+            });
+            if (drained[0] != 0) {
+                batch.add(new Object[]{drained[0], drained[0], reviewId});
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Update rows in id order so concurrent flushers (several app instances) lock rows in the same order
+        batch.sort((a, b) -> Long.compare((Long) a[2], (Long) b[2]));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+        } catch (RuntimeException e) {
+            // Put the deltas back; they will be retried on the next flush
+            for (Object[] row : batch) {
+                add((Long) row[2], (Long) row[0]);
+            }
+            logger.error("Failed to flush {} helpful-vote deltas, will retry.", batch.size(), e);
+            return 0;
+        }
+        return batch.size();
+    }
+
+    // Returning null from merge/computeIfPresent removes the entry
+    private static Long sumOrRemove(Long pending, Long delta) {
+        long sum = pending + delta;
+        return sum == 0 ? null : sum;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        if (flushed > 0) {
+            logger.info("Flushed helpful-vote deltas for {} reviews on shutdown.", flushed);
+        }
+    }
+}
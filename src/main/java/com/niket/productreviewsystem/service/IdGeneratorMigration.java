@@ -0,0 +1,82 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migration from IDENTITY ids to the pooled table ids (see IdGenerators).
+ * <p>
+ * Existing tables keep their ids. At startup, before DataLoader or anything else inserts, each generator
+ * row is raised above MAX(id) of its table plus one allocation block, whichever way the pooled optimizer
+ * reads the stored value; rows that are already higher are left alone, so running it again is harmless.
+ * Rows inserted with explicit ids outside JPA start at nextFreeId(); call alignAll() after inserting them.
+ * <p>
+ * Instances still running the IDENTITY mapping must be stopped before the first instance with table ids
+ * starts: their AUTO_INCREMENT values know nothing about the blocks handed out here.
+ */
+@Component
+@DependsOn("entityManagerFactory") // the schema (and the generator table) must exist
+public class IdGeneratorMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorMigration.class);
+
+    private static final String RAISE_SQL = "UPDATE " + IdGenerators.ID_TABLE + " SET " + IdGenerators.NEXT_ID_COLUMN
+            + " = ? WHERE " + IdGenerators.SEGMENT_COLUMN + " = ? AND " + IdGenerators.NEXT_ID_COLUMN + " < ?";
+
+    private static final String INSERT_SQL = "INSERT INTO " + IdGenerators.ID_TABLE + " ("
+            + IdGenerators.SEGMENT_COLUMN + ", " + IdGenerators.NEXT_ID_COLUMN + ") VALUES (?, ?)";
+
+    private static final String EXISTS_SQL = "SELECT COUNT(*) FROM " + IdGenerators.ID_TABLE
+            + " WHERE " + IdGenerators.SEGMENT_COLUMN + " = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignAll() {
+        for (String table : IdGenerators.TABLES) {
+            align(table);
+        }
+    }
+
+    /**
+     * First id above the existing rows of 'table' and above any id block already handed out (always below
+     * the stored next_id). Only safe while nothing else inserts into the table until alignAll() has run.
+     */
+    public long nextFreeId(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long reserved = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + IdGenerators.NEXT_ID_COLUMN + "), 0) FROM "
+                + IdGenerators.ID_TABLE + " WHERE " + IdGenerators.SEGMENT_COLUMN + " = ?", Long.class, table);
+        return Math.max(maxId, reserved) + 1;
+    }
+
+    private void align(String table) {
+        // 1. Lowest safe stored value: above every existing id even if the next block starts right at it
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long floor = maxId + IdGenerators.ALLOCATION_SIZE + 1;
+
+        // 2. Raise the row if it is lower, or create it
+        if (jdbcTemplate.update(RAISE_SQL, floor, table, floor) > 0) {
+            logger.info("Raised id generator '{}' to {} (max id {}).", table, floor, maxId);
+            return;
+        }
+        Integer rows = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, table);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, table, floor);
+            logger.info("Created id generator '{}' at {} (max id {}).", table, floor, maxId);
+        } catch (DuplicateKeyException e) {
+            // Another instance created it first; make sure it is high enough
+            jdbcTemplate.update(RAISE_SQL, floor, table, floor);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.ImageBlob;
+import com.niket.productreviewsystem.repository.ImageBlobRepository;
+import com.niket.productreviewsystem.service.ImageUploadService.ProcessedImage;
+import com.niket.productreviewsystem.service.ImageVariantService.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed, deduplicated storage for uploaded images.
+ * <p>
+ * Each distinct content is stored once, under the SHA-256 of its bytes, in two levels of shard directories
+ * (blobs/ab/cd/abcd....png, with its variants as abcd...-thumb.jpg next to it), and published as /media/ab/cd/....
+ * The image_blobs row counts the reviews/products referencing it: prepare() creates it unreferenced, acquire() adds
+ * a reference when an upload is published, release() drops one when a review/product (or its old image) is deleted,
+ * in the same transaction.
+ * Files are only removed by sweep(), under the row lock, for blobs that stayed unreferenced for a grace period,
+ * so a new upload of the same content can still pick the blob up again.
+ */
+@Service
+public class ImageBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBlobStore.class);
+
+    public static final String URL_PREFIX = "/media/";
+
+    // "/media/ab/cd/<64 hex>.<ext>" or a variant "/media/ab/cd/<64 hex>-thumb.jpg"
+    private static final Pattern BLOB_PATH = Pattern.compile("^/media/([0-9a-f]{2})/([0-9a-f]{2})/(\\1\\2[0-9a-f]{60})(-[a-z]+)?\\.[a-z]{3,4}$");
+
+    @Autowired
+    private ImageBlobRepository blobRepository;
+
+    private final Path blobDir;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    @Value("${images.blobs.sweep-grace-minutes:60}")
+    private long sweepGraceMinutes;
+
+    public ImageBlobStore(@Value("${images.blobs.dir:${storage.root:./storage}/blobs}") String blobDir,
+                          PlatformTransactionManager transactionManager) {
+        this.blobDir = Paths.get(blobDir).toAbsolutePath().normalize();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            Files.createDirectories(this.blobDir);
+            logger.info("Image blob store initialized at: {}", this.blobDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not initialize image blob directory", e);
+        }
+    }
+
+    public Path getBlobDir() {
+        return blobDir;
+    }
+
+    /**
+     * Creates the (unreferenced) row of the blob with the given digest unless it exists, in its own transaction,
+     * so a concurrent upload of the same content cannot fail the acquiring one. Call it before that transaction,
+     * not inside it: nested, it would hold a second pooled connection per upload.
+     */
+    public void prepare(String digest, String extension, long sizeBytes) {
+        if (blobRepository.existsById(digest)) {
+            return;
+        }
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> blobRepository.saveAndFlush(newBlob(digest, extension, sizeBytes)));
+        } catch (DataIntegrityViolationException e) {
+            // Inserted concurrently by another upload of the same content
+        }
+    }
+
+    /**
+     * Adds a reference to the blob with the given digest (see prepare()), storing the staged original (and staged
+     * variants) if this content is not on disk yet. Must run inside the transaction that publishes the image path,
+     * so the reference and the path commit (or roll back) together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ProcessedImage acquire(String digest, String extension, long sizeBytes,
+                                  Path stagedOriginal, Map<Variant, Path> stagedVariants) throws IOException {
+        // 1. Lock the row: reference changes and the sweeper's file removal for this content are serialized
+        ImageBlob blob = blobRepository.findForUpdate(digest).orElse(null);
+        if (blob == null) {
+            // Swept since prepare(): recreate it here (rare; a concurrent upload recreating it too fails on the key and is REJECTED)
+            blob = blobRepository.save(newBlob(digest, extension, sizeBytes));
+        }
+        blob.setRefCount(blob.getRefCount() + 1);
+        blob.setUpdatedAt(LocalDateTime.now());
+
+        // 2. Under the lock, put any missing file in place (a duplicate upload finds them already there)
+        Path original = place(stagedOriginal, pathFor(digest, blob.getExtension()));
+        if (original == null) {
+            throw new IOException("No stored or staged content for image blob " + digest);
+        }
+        Path thumbnail = place(stagedVariants.get(Variant.THUMBNAIL), variantPathFor(digest, Variant.THUMBNAIL));
+        Path preview = place(stagedVariants.get(Variant.PREVIEW), variantPathFor(digest, Variant.PREVIEW));
+        return new ProcessedImage(urlFor(original), urlFor(thumbnail), urlFor(preview));
+    }
+
+    /**
+     * Drops the reference an entity held through the given image path. Paths outside the blob store
+     * (legacy uploads) are ignored and reported with false, so the caller can clean those up itself.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean release(String imagePath) {
+        String digest = digestOf(imagePath);
+        if (digest == null) {
+            return false;
+        }
+        blobRepository.release(digest, LocalDateTime.now());
+        return true;
+    }
+
+    public boolean isBlobPath(String imagePath) {
+        return digestOf(imagePath) != null;
+    }
+
+    /**
+     * Resolves a /media/... path (original or variant) to its file, or null if it is not a blob path.
+     */
+    public Path resolve(String publicPath) {
+        if (!isBlobPath(publicPath)) {
+            return null;
+        }
+        return blobDir.resolve(publicPath.substring(URL_PREFIX.length())).normalize();
+    }
+
+    /**
+     * Deletes the files and rows of blobs that have had no reference for longer than the grace period.
+     */
+    @Scheduled(fixedDelayString = "${images.blobs.sweep-interval-ms:600000}", initialDelayString = "${images.blobs.sweep-interval-ms:600000}")
+    public int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(sweepGraceMinutes);
+        int removed = 0;
+        for (String digest : blobRepository.findUnreferencedSince(cutoff)) {
+            Boolean deleted = transactionTemplate.execute(status -> {
+                ImageBlob blob = blobRepository.findForUpdate(digest).orElse(null);
+                // Re-check under the lock: the blob may have been picked up again meanwhile
+                if (blob == null || blob.getRefCount() > 0 || !blob.getUpdatedAt().isBefore(cutoff)) {
+                    return false;
+                }
+                deleteFiles(digest);
+                blobRepository.delete(blob);
+                return true;
+            });
+            if (Boolean.TRUE.equals(deleted)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.info("Removed {} unreferenced image blobs.", removed);
+        }
+        return removed;
+    }
+
+    private ImageBlob newBlob(String digest, String extension, long sizeBytes) {
+        ImageBlob blob = new ImageBlob();
+        blob.setDigest(digest);
+        blob.setExtension(extension);
+        blob.setSizeBytes(sizeBytes);
+        blob.setRefCount(0);
+        return blob;
+    }
+
+    // Moves the staged file to the target unless the target already exists; returns the target, or null if neither exists
+    private Path place(Path staged, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return target;
+        }
+        if (staged == null || !Files.exists(staged)) {
+            return null;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Staging on another file system: copy next to the target, then rename into place
+            Path temp = Files.createTempFile(target.getParent(), ".blob-", ".tmp");
+            Files.copy(staged, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return target;
+    }
+
+    private void deleteFiles(String digest) {
+        Path shard = shardDir(digest);
+        if (!Files.isDirectory(shard)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, digest + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            // The row is kept (rollback), so the next sweep retries
+            throw new RuntimeException("Could not delete files of image blob " + digest, e);
+        }
+    }
+
+    private Path shardDir(String digest) {
+        return blobDir.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4));
+    }
+
+    private Path pathFor(String digest, String extension) {
+        return shardDir(digest).resolve(digest + extension);
+    }
+
+    private Path variantPathFor(String digest, Variant variant) {
+        return shardDir(digest).resolve(digest + "-" + variant.getKey() + ".jpg");
+    }
+
+    private String urlFor(Path file) {
+        if (file == null) {
+            return null;
+        }
+        List<String> parts = List.of(file.getParent().getParent().getFileName().toString(),
+                file.getParent().getFileName().toString(), file.getFileName().toString());
+        return URL_PREFIX + String.join("/", parts);
+    }
+
+    private String digestOf(String imagePath) {
+        if (imagePath == null) {
+            return null;
+        }
+        Matcher matcher = BLOB_PATH.matcher(imagePath);
+        return matcher.matches() ? matcher.group(3) : null;
+    }
+}
@@ -0,0 +1,349 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.config.ImageProcessingConfig;
+import com.niket.productreviewsystem.model.ImageStatus;
+import com.niket.productreviewsystem.service.ImageVariantService.Variant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Upload pipeline for review and product images.
+ * <ol>
+ *   <li>stage(): before any transaction, the upload reserves a processing slot (worker or queue place) and is
+ *       streamed to a staging file (no DB connection held), computing its SHA-256 on the way. Without a free slot
+ *       the upload fails right away, before the caller opens its transaction.</li>
+ *   <li>The caller saves its row with imageStatus PENDING and registers placeAfterCommit() in the same transaction.</li>
+ *   <li>After commit, a bounded executor sniffs the content (magic bytes), derives the resized variants
+ *       (ImageVariantService), stores the content once in the ImageBlobStore and reports READY (with the public
+ *       paths) or REJECTED back to the caller's completion.</li>
+ * </ol>
+ * If the transaction rolls back, the staged file is deleted instead. The slot is given back when processing
+ * ends or the staged file is discarded.
+ */
+@Service
+public class ImageUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
+
+    static final String IMAGE_UPLOAD_TIMER = "images.upload";
+    static final String IMAGE_PROCESS_TIMER = "images.process";
+
+    // What the image belongs to (metrics tag)
+    public enum ImageTarget {
+        REVIEW,
+        PRODUCT
+    }
+
+    /**
+     * An upload written to the staging directory, not yet checked or stored.
+     */
+    public static class StagedImage {
+        private final Path file;
+        private final ImageTarget target;
+        private final String digest;
+        private final long sizeBytes;
+        // Set once the processing slot has been given back (see releaseSlot)
+        private final AtomicBoolean slotReleased = new AtomicBoolean();
+
+        StagedImage(Path file, ImageTarget target, String digest, long sizeBytes) {
+            this.file = file;
+            this.target = target;
+            this.digest = digest;
+            this.sizeBytes = sizeBytes;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public ImageTarget getTarget() {
+            return target;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+    }
+
+    /**
+     * Public paths of a processed image. A variant path is null if it could not be derived
+     * (the templates then fall back to the lazy /img/{variant}/... generator).
+     */
+    public static class ProcessedImage {
+        private final String imagePath;
+        private final String thumbnailPath;
+        private final String previewPath;
+
+        ProcessedImage(String imagePath, String thumbnailPath, String previewPath) {
+            this.imagePath = imagePath;
+            this.thumbnailPath = thumbnailPath;
+            this.previewPath = previewPath;
+        }
+
+        public String getImagePath() {
+            return imagePath;
+        }
+
+        public String getThumbnailPath() {
+            return thumbnailPath;
+        }
+
+        public String getPreviewPath() {
+            return previewPath;
+        }
+    }
+
+    /**
+     * Applies the processing result to the owning row. Runs on an image worker thread, in a new transaction
+     * that also takes the blob reference. The image is null when the status is REJECTED.
+     * Returns false if the row no longer exists; the blob reference is then rolled back.
+     */
+    @FunctionalInterface
+    public interface ImageCompletion {
+        boolean complete(ImageStatus status, ProcessedImage image);
+    }
+
+    @Autowired
+    @Qualifier(ImageProcessingConfig.IMAGE_TASK_EXECUTOR)
+    private ThreadPoolTaskExecutor imageTaskExecutor;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageBlobStore imageBlobStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Path stagingDir;
+
+    // Workers plus queue places of the image executor; taken in stage(), so execute() always finds room
+    private Semaphore processingSlots;
+
+    // The workers run outside any transaction; each step commits on its own
+    private final TransactionTemplate newTransactionTemplate;
+
+    public ImageUploadService(@Value("${images.staging.dir:${storage.root:./storage}/staging}") String stagingDir,
+                              PlatformTransactionManager transactionManager) {
+        this.stagingDir = Paths.get(stagingDir).normalize();
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            Files.createDirectories(this.stagingDir);
+            logger.info("Image staging directory initialized at: {}", this.stagingDir.toAbsolutePath());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not initialize image staging directory", e);
+        }
+    }
+
+    @PostConstruct
+    void initProcessingSlots() {
+        processingSlots = new Semaphore(imageTaskExecutor.getMaxPoolSize() + imageTaskExecutor.getQueueCapacity());
+    }
+
+    /**
+     * Reserves a processing slot and streams the upload to a staging file, hashing it on the way.
+     * Must be called outside a transaction. Returns null if no file was uploaded.
+     */
+    public StagedImage stage(MultipartFile imageFile, ImageTarget target) {
+        if (imageFile == null || imageFile.isEmpty()) {
+            return null;
+        }
+        // Back-pressure: refuse the upload now rather than holding the caller's connection later
+        if (!processingSlots.tryAcquire()) {
+            meterRegistry.counter("images.upload.rejected", "target", target.name().toLowerCase()).increment();
+            throw new RuntimeException("Too many images are being processed right now. Please try again in a moment.");
+        }
+        Path staged = stagingDir.resolve(UUID.randomUUID() + ".upload");
+        Timer.Sample upload = Timer.start(meterRegistry);
+        try (DigestInputStream in = new DigestInputStream(imageFile.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+            long size = Files.copy(in, staged);
+            String digest = HexFormat.of().formatHex(in.getMessageDigest().digest());
+            return new StagedImage(staged, target, digest, size);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteQuietly(staged);
+            processingSlots.release();
+            logger.error("Failed to stage uploaded image.", e);
+            throw new RuntimeException("Failed to upload image: " + e.getMessage());
+        } finally {
+            upload.stop(meterRegistry.timer(IMAGE_UPLOAD_TIMER, "target", target.name().toLowerCase()));
+        }
+    }
+
+    /**
+     * Queues the staged image for processing once the current transaction commits; on rollback it is discarded.
+     * Must be called inside the transaction that saves the owning row with imageStatus PENDING.
+     */
+    public void placeAfterCommit(StagedImage image, ImageCompletion completion) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Never blocks or runs inline: stage() reserved a place on the executor
+                try {
+                    imageTaskExecutor.execute(() -> process(image, completion));
+                } catch (TaskRejectedException e) {
+                    // Only while shutting down; the row keeps PENDING
+                    logger.error("Image processing rejected for {}.", image.getFile().getFileName(), e);
+                    discard(image);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    discard(image);
+                }
+            }
+        });
+    }
+
+    /**
+     * Discards a staged image whose owning row was never saved, giving back its processing slot.
+     */
+    public void discard(StagedImage image) {
+        if (image != null) {
+            deleteQuietly(image.getFile());
+            releaseSlot(image);
+        }
+    }
+
+    // Idempotent: a staged image can be discarded by both the rollback hook and the caller's catch block
+    private void releaseSlot(StagedImage image) {
+        if (image.slotReleased.compareAndSet(false, true)) {
+            processingSlots.release();
+        }
+    }
+
+    // Worker: sniff, derive variants, store in the blob store, report back
+    private void process(StagedImage image, ImageCompletion completion) {
+        Timer.Sample processing = Timer.start(meterRegistry);
+        ImageStatus result = ImageStatus.REJECTED;
+        Map<Variant, Path> stagedVariants = new EnumMap<>(Variant.class);
+        try {
+            // 1. Check the actual content; the client's file name and content type are not trusted
+            String extension = sniffExtension(image.getFile());
+            if (extension == null) {
+                logger.warn("Rejected upload {}: not a supported image type.", image.getFile().getFileName());
+                newTransactionTemplate.execute(status -> completion.complete(ImageStatus.REJECTED, null));
+                return;
+            }
+
+            // 2. Refuse images too large to decode safely (only the header is read)
+            if (imageVariantService.exceedsPixelLimit(image.getFile())) {
+                logger.warn("Rejected upload {}: the image has too many pixels.", image.getFile().getFileName());
+                newTransactionTemplate.execute(status -> completion.complete(ImageStatus.REJECTED, null));
+                return;
+            }
+
+            // 3. Derive the resized variants in staging (a failure here only costs the pre-built variants)
+            imageVariantService.createVariants(image.getFile())
+                    .forEach((variant, fileName) -> stagedVariants.put(variant, image.getFile().resolveSibling(fileName)));
+
+            // 4. Create the blob row on its own first, so the transaction below holds a single connection
+            imageBlobStore.prepare(image.getDigest(), extension, image.getSizeBytes());
+
+            // 5. Store the content (once per digest) and publish it on the owning row, in one transaction
+            Boolean applied = newTransactionTemplate.execute(status -> {
+                ProcessedImage processed;
+                try {
+                    processed = imageBlobStore.acquire(image.getDigest(), extension, image.getSizeBytes(),
+                            image.getFile(), stagedVariants);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to store image blob: " + e.getMessage(), e);
+                }
+                if (!completion.complete(ImageStatus.READY, processed)) {
+                    // The review/product was deleted while the image was queued: do not keep the reference
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(applied)) {
+                result = ImageStatus.READY;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to process uploaded image {}.", image.getFile().getFileName(), e);
+            try {
+                newTransactionTemplate.execute(status -> completion.complete(ImageStatus.REJECTED, null));
+            } catch (RuntimeException rejectFailed) {
+                logger.error("Could not mark upload {} as rejected; its row keeps PENDING.",
+                        image.getFile().getFileName(), rejectFailed);
+            }
+        } finally {
+            // Whatever the blob store did not move into place is no longer needed
+            deleteQuietly(image.getFile());
+            stagedVariants.values().forEach(this::deleteQuietly);
+            releaseSlot(image);
+            processing.stop(meterRegistry.timer(IMAGE_PROCESS_TIMER,
+                    "target", image.getTarget().name().toLowerCase(), "result", result.name().toLowerCase()));
+        }
+    }
+
+    // Returns the file extension for a supported image format, based on its leading magic bytes, or null
+    static String sniffExtension(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return ".jpg";
+        }
+        if (read >= 8 && Arrays.equals(Arrays.copyOf(head, 8),
+                new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})) {
+            return ".png";
+        }
+        if (read >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return ".gif";
+        }
+        if (read >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return ".webp";
+        }
+        return null;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete image file {}: {}", file, e.getMessage());
+        }
+    }
+}
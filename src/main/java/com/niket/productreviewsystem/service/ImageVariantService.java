@@ -0,0 +1,351 @@
+package com.niket.productreviewsystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * Derives fixed-width JPEG variants of review and product images.
+ * New uploads get their variants derived next to the staged original by the upload pipeline (createVariants);
+ * images that have none (older uploads, seeded assets) are derived on first request and kept in an
+ * on-disk cache (getOrCreateVariant, served by ImageVariantController under /img/{variant}/...).
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    // Legacy public image paths accepted by the lazy generator: plain file names under a few known folders
+    private static final Pattern PUBLIC_PATH = Pattern.compile("^/(uploads|product-assets|product-images|images)/[A-Za-z0-9._-]+$");
+
+    @Autowired
+    private ImageBlobStore imageBlobStore;
+
+    // Larger images (by their header) are never decoded; 600 x 100000 is as much a decompression bomb as 10000 x 10000
+    @Value("${images.variants.max-source-pixels:50000000}")
+    private long maxSourcePixels;
+
+    // Lazy derivations in progress, by cache file
+    private final ConcurrentHashMap<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public enum Variant {
+        THUMBNAIL("thumb", 320),  // review images, product cards, admin lists
+        PREVIEW("preview", 800);  // product detail header
+
+        private final String key;
+        private final int width;
+
+        Variant(String key, int width) {
+            this.key = key;
+            this.width = width;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public static Variant fromKey(String key) {
+            for (Variant variant : values()) {
+                if (variant.key.equals(key)) {
+                    return variant;
+                }
+            }
+            return null;
+        }
+    }
+
+    static {
+        // Decode in memory; ImageIO's default disk cache only adds temp-file I/O for these sizes
+        ImageIO.setUseCache(false);
+    }
+
+    private final Path reviewImageDir;
+    private final Path productImageDir;
+    private final Path cacheDir;
+
+    public ImageVariantService(@Value("${review.upload.dir:${storage.root:./storage}/uploads/}") String reviewUploadDir,
+                               @Value("${images.variants.cache-dir:${storage.root:./storage}/variants}") String cacheDir) {
+        this.reviewImageDir = Paths.get(reviewUploadDir).normalize();
+        this.productImageDir = Paths.get("./product-assets").toAbsolutePath().normalize();
+        this.cacheDir = Paths.get(cacheDir).normalize();
+    }
+
+    /**
+     * Writes every variant of a freshly staged original next to it ("name-thumb.jpg", ...).
+     * Returns the file names of the variants that could be created; an undecodable image yields an empty map.
+     */
+    public Map<Variant, String> createVariants(Path original) {
+        Map<Variant, String> created = new EnumMap<>(Variant.class);
+        String baseName = original.getFileName().toString();
+        int dot = baseName.lastIndexOf('.');
+        if (dot > 0) {
+            baseName = baseName.substring(0, dot);
+        }
+        for (Variant variant : Variant.values()) {
+            String fileName = baseName + "-" + variant.getKey() + ".jpg";
+            try {
+                if (writeVariant(new FileSystemResource(original), variant, original.resolveSibling(fileName))) {
+                    created.put(variant, fileName);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not create {} variant of {}: {}", variant.getKey(), original.getFileName(), e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Whether the image has more pixels than images.variants.max-source-pixels. Only its header is read.
+     * Returns false for content no image reader recognizes.
+     */
+    public boolean exceedsPixelLimit(Path image) throws IOException {
+        try (InputStream in = Files.newInputStream(image);
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            ImageReader reader = readerFor(input);
+            if (reader == null) {
+                return false;
+            }
+            try {
+                reader.setInput(input, true, true);
+                return (long) reader.getWidth(0) * reader.getHeight(0) > maxSourcePixels;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Whether the path has the shape of an image URL this application serves (no traversal, no foreign host).
+     */
+    public boolean isPublicImagePath(String publicPath) {
+        return publicPath != null && (PUBLIC_PATH.matcher(publicPath).matches() || imageBlobStore.isBlobPath(publicPath));
+    }
+
+    /**
+     * Returns the cached variant file for a public image path (e.g. "/uploads/abc.png"), deriving it on first use.
+     * Returns null if the path is not an image this application serves, or it cannot be decoded (remembered
+     * in the cache, so the original is not read again).
+     */
+    public Path getOrCreateVariant(String publicPath, Variant variant) throws IOException {
+        if (!isPublicImagePath(publicPath)) {
+            return null;
+        }
+        // Sharded by the first two hex digits, so no single directory holds every cached variant
+        String key = sha256(publicPath);
+        Path shard = cacheDir.resolve(variant.getKey()).resolve(key.substring(0, 2));
+        Path cached = shard.resolve(key + ".jpg");
+        if (Files.exists(cached)) {
+            return cached;
+        }
+        // Marks an original that cannot be derived (no reader, too many pixels), so it is not read again
+        Path underivable = shard.resolve(key + ".none");
+        if (Files.exists(underivable)) {
+            return null;
+        }
+
+        // Concurrent first requests for the same variant wait for one derivation instead of each decoding the source
+        CompletableFuture<Path> derivation = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(cached, derivation);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            Path result = deriveVariant(publicPath, variant, cached, underivable);
+            derivation.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            derivation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cached, derivation);
+        }
+    }
+
+    private Path deriveVariant(String publicPath, Variant variant, Path cached, Path underivable) throws IOException {
+        // A derivation that finished just before this one started
+        if (Files.exists(cached)) {
+            return cached;
+        }
+        Resource original = resolveOriginal(publicPath);
+        if (original == null) {
+            return null;
+        }
+        Files.createDirectories(cached.getParent());
+        if (writeVariant(original, variant, cached)) {
+            return cached;
+        }
+        try {
+            Files.createFile(underivable);
+        } catch (FileAlreadyExistsException e) {
+            // Marked by another instance
+        }
+        return null;
+    }
+
+    private static Path await(CompletableFuture<Path> derivation) throws IOException {
+        try {
+            return derivation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an image variant.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not derive the image variant: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Maps a public path to the stored original: blobs, uploaded files, then the bundled static resources
+    private Resource resolveOriginal(String publicPath) {
+        if (imageBlobStore.isBlobPath(publicPath)) {
+            FileSystemResource blob = new FileSystemResource(imageBlobStore.resolve(publicPath));
+            return blob.exists() ? blob : null;
+        }
+        String fileName = publicPath.substring(publicPath.lastIndexOf('/') + 1);
+        if (publicPath.startsWith("/product-assets/")) {
+            FileSystemResource file = new FileSystemResource(productImageDir.resolve(fileName));
+            return file.exists() ? file : null;
+        }
+        if (publicPath.startsWith("/uploads/")) {
+            FileSystemResource file = new FileSystemResource(reviewImageDir.resolve(fileName));
+            if (file.exists()) {
+                return file;
+            }
+        }
+        ClassPathResource bundled = new ClassPathResource("static" + publicPath);
+        return bundled.exists() ? bundled : null;
+    }
+
+    // Decodes, scales down to the variant width and writes a JPEG atomically (temp file + move)
+    private boolean writeVariant(Resource original, Variant variant, Path target) throws IOException {
+        BufferedImage source;
+        try (InputStream in = original.getInputStream()) {
+            source = decode(in, variant.getWidth());
+        }
+        if (source == null) {
+            return false;
+        }
+
+        int width = Math.min(variant.getWidth(), source.getWidth());
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel: transparent PNG areas become white instead of black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            writeJpeg(scaled, temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    // Reads the image subsampled to about twice the target width, and to at most about (2 x target width)^2 pixels
+    // whatever its shape, so a multi-megapixel PNG is never fully held in memory. Returns null for an image
+    // no reader recognizes or one above the pixel limit (only its header is read then)
+    private BufferedImage decode(InputStream in, int targetWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            ImageReader reader = readerFor(input);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                long pixels = (long) width * reader.getHeight(0);
+                if (pixels > maxSourcePixels) {
+                    logger.warn("Not decoding an image of {} pixels, more than the limit of {}.", pixels, maxSourcePixels);
+                    return null;
+                }
+                long pixelBudget = 4L * targetWidth * targetWidth;
+                int step = Math.max(1, Math.max(width / (targetWidth * 2), (int) Math.ceil(Math.sqrt((double) pixels / pixelBudget))));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader readerFor(ImageInputStream input) {
+        if (input == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
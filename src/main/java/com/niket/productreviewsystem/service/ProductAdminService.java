@@ -1,10 +1,22 @@
 package com.niket.productreviewsystem.service;
 
+import com.niket.productreviewsystem.config.CacheConfig;
 import com.niket.productreviewsystem.model.Product;
 import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.model.ImageStatus;
+import com.niket.productreviewsystem.service.ImageUploadService.ImageTarget;
+import com.niket.productreviewsystem.service.ImageUploadService.ProcessedImage;
+import com.niket.productreviewsystem.service.ImageUploadService.StagedImage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -13,7 +25,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class ProductAdminService {
@@ -21,6 +33,27 @@ public class ProductAdminService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private ImageBlobStore imageBlobStore;
+
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     // Define the base path for product image storage (physical disk location: project-root/product-assets)
     private final Path productUploadDir = Paths.get("./product-assets").toAbsolutePath().normalize();
     // Constant for the URL prefix used in the browser and stored in the database
@@ -55,64 +88,110 @@ public class ProductAdminService {
         return productRepository.findById(id);
     }
 
-    @Transactional
+    /**
+     * Saves a product. A new image is streamed to staging before the transaction starts and published
+     * asynchronously after commit (see completeImage); until then the previous image stays visible.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#result.id")
+    })
     public Product saveProduct(Product product, MultipartFile imageFile) {
-        // Handle image upload logic
-        if (imageFile != null && !imageFile.isEmpty()) {
-            try {
-                // Generate unique file name
-                String originalFilename = imageFile.getOriginalFilename();
-                String fileExtension = "";
-                if (originalFilename != null && originalFilename.lastIndexOf(".") != -1) {
-                    fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        // 1. Stage the upload outside the transaction (no DB connection held while the file streams in)
+        StagedImage stagedImage = imageUploadService.stage(imageFile, ImageTarget.PRODUCT);
+
+        try {
+            return transactionTemplate.execute(status -> {
+                // 2. Mark the pending upload; the public path is set by completeImage once the file is placed
+                if (stagedImage != null) {
+                    product.setImageStatus(ImageStatus.PENDING);
                 }
-                String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-
-                // 1. Correctly delete old image if it exists and we are updating
-                if (product.getImagePath() != null && !product.getImagePath().isEmpty()) {
-                    String oldFileName = getFileNameFromUrlPath(product.getImagePath());
-                    if (oldFileName != null) {
-                        Path oldFilePath = this.productUploadDir.resolve(oldFileName);
-                        Files.deleteIfExists(oldFilePath);
-                    }
+                Product saved = productRepository.save(product);
+
+                if (stagedImage != null) {
+                    Long productId = saved.getId();
+                    imageUploadService.placeAfterCommit(stagedImage,
+                            (imageStatus, image) -> completeImage(productId, imageStatus, image));
                 }
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            imageUploadService.discard(stagedImage);
+            throw e;
+        }
+    }
 
-                // 2. Save the new file locally
-                Path filePath = this.productUploadDir.resolve(uniqueFileName);
-                Files.copy(imageFile.getInputStream(), filePath);
+    /**
+     * Applies the result of the asynchronous image processing (runs inside the worker's transaction).
+     * On READY the new image replaces the old one, whose file is deleted after commit.
+     */
+    private boolean completeImage(Long productId, ImageStatus imageStatus, ProcessedImage image) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null) {
+            return false;
+        }
+        product.setImageStatus(imageStatus);
+        if (imageStatus == ImageStatus.READY) {
+            releaseImage(product);
+            product.setImagePath(image.getImagePath());
+            product.setThumbnailPath(image.getThumbnailPath());
+            product.setPreviewPath(image.getPreviewPath());
+        }
 
-                // 3. Store the correct public URL path in the database.
-                // It MUST start with /product-assets/ to match the new WebMvcConfig mapping.
-                product.setImagePath(URL_PREFIX + uniqueFileName);
+        // The cached copy still has the old image (the transaction-aware cache evicts after commit)
+        cacheManager.getCache(CacheConfig.PRODUCTS).evict(productId);
+        cacheManager.getCache(CacheConfig.PRODUCT_LIST).clear();
+        return true;
+    }
 
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to upload product image: " + e.getMessage());
-            }
+    /**
+     * Gives up the product's current image (inside the caller's transaction): a blob reference is released,
+     * a legacy file under product-assets (and its variants) is deleted once the transaction commits.
+     */
+    private void releaseImage(Product product) {
+        if (product.getImagePath() == null || product.getImagePath().isEmpty()
+                || imageBlobStore.release(product.getImagePath())) {
+            return;
         }
+        List<String> legacyFiles = Stream.of(product.getImagePath(), product.getThumbnailPath(), product.getPreviewPath())
+                .filter(path -> path != null && !path.isEmpty())
+                .toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                legacyFiles.forEach(ProductAdminService.this::deleteImageFile);
+            }
+        });
+    }
 
-        return productRepository.save(product);
+    private void deleteImageFile(String imagePath) {
+        try {
+            // Strip the URL prefix to get the filename for physical deletion
+            String fileName = getFileNameFromUrlPath(imagePath);
+            if (fileName != null) {
+                Files.deleteIfExists(productUploadDir.resolve(fileName));
+            }
+        } catch (Exception e) {
+            // Log but do not fail the caller if file deletion fails
+            System.err.println("Warning: Could not delete product image file: " + e.getMessage());
+        }
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    })
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Clean up image file before deleting the entity
-        if (product.getImagePath() != null && !product.getImagePath().isEmpty()) {
-            try {
-                // Strip the URL prefix to get the filename for physical deletion
-                String fileName = getFileNameFromUrlPath(product.getImagePath());
-                if (fileName != null) {
-                    Path filePath = productUploadDir.resolve(fileName);
-                    Files.deleteIfExists(filePath);
-                }
-            } catch (Exception e) {
-                // Log but do not prevent deletion of the entity if file deletion fails
-                System.err.println("Warning: Could not delete product image file: " + e.getMessage());
-            }
-        }
+        // Release the product image and the images of its reviews (deleted with it by cascade)
+        releaseImage(product);
+        reviewRepository.findImagePathsByProductId(id).forEach(imageBlobStore::release);
+        reviewSearchService.removeProductAfterCommit(id);
 
+        ratingStatsService.removeStats(id);
         productRepository.deleteById(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.config.CacheConfig;
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through, cached access to the product catalog for the public pages.
+ * Products only change through ProductAdminService, which evicts these caches,
+ * so almost every catalog request is served from memory.
+ * Cached Product instances are shared between requests and must be treated as read-only.
+ */
+@Service
+public class ProductCatalogService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_LIST, key = "'all'")
+    public List<Product> findAll() {
+        // Unmodifiable, since the same list instance is handed to every request
+        return List.copyOf(productRepository.findAll());
+    }
+
+    // Optional is unwrapped by the cache abstraction: the Product (or a cached 'not found') is stored
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public Optional<Product> findById(Long id) {
+        return productRepository.findById(id);
+    }
+}
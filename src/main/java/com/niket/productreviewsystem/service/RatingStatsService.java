@@ -0,0 +1,165 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.ProductRatingStats;
+import com.niket.productreviewsystem.repository.ProductRatingStatsRepository;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-product rating aggregates (product_rating_stats).
+ * Review writes adjust the aggregate row in the caller's transaction; a scheduled
+ * reconciliation job rebuilds every row from the 'reviews' table to repair any drift.
+ */
+@Service
+public class RatingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingStatsService.class);
+
+    @Autowired
+    private ProductRatingStatsRepository statsRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${rating.stats.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    /**
+     * Returns the aggregate for a product in a single primary-key lookup.
+     * Products without any review yet get an empty (all-zero) aggregate.
+     */
+    public ProductRatingStats getStats(Long productId) {
+        return statsRepository.findById(productId)
+                .orElseGet(() -> new ProductRatingStats(productId));
+    }
+
+    /**
+     * Returns the aggregates of several products in one query (product list, rating API),
+     * keyed by product id in the order given. Products without any review get an empty aggregate.
+     */
+    public Map<Long, ProductRatingStats> getStats(Collection<Long> productIds) {
+        Map<Long, ProductRatingStats> stored = statsRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(ProductRatingStats::getProductId, Function.identity()));
+        Map<Long, ProductRatingStats> stats = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            stats.put(productId, stored.getOrDefault(productId, new ProductRatingStats(productId)));
+        }
+        return stats;
+    }
+
+    /**
+     * Counts a newly saved review. Must run inside the transaction that inserts the review.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReviewAdded(Long productId, int rating) {
+        recordReviewsAdded(productId, rating, 1);
+    }
+
+    /**
+     * Counts 'count' new reviews with the same rating in one update (bulk imports).
+     * Must run inside the transaction that inserts the reviews.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReviewsAdded(Long productId, int rating, long count) {
+        if (statsRepository.applyRatingDelta(productId, rating, count) == 0) {
+            // First review for this product: create the aggregate row (unless a concurrent first review
+            // just did), then count this one
+            statsRepository.insertIfAbsent(productId);
+            statsRepository.applyRatingDelta(productId, rating, count);
+        }
+    }
+
+    /**
+     * Removes a deleted review from the aggregate. Must run inside the transaction that deletes the review.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReviewRemoved(Long productId, int rating) {
+        recordReviewsRemoved(productId, rating, 1);
+    }
+
+    /**
+     * Removes 'count' deleted reviews with the same rating from the aggregate in one update (bulk deletes).
+     * Must run inside the transaction that deletes the reviews.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReviewsRemoved(Long productId, int rating, long count) {
+        statsRepository.applyRatingDelta(productId, rating, -count);
+    }
+
+    /**
+     * Drops the aggregate of a deleted product.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeStats(Long productId) {
+        if (statsRepository.existsById(productId)) {
+            statsRepository.deleteById(productId);
+        }
+    }
+
+    /**
+     * Rebuilds every product's aggregate from the 'reviews' table.
+     * Each product is recomputed in its own short transaction while holding the aggregate row lock,
+     * so concurrent review writes simply queue behind it instead of being overwritten.
+     */
+    @Scheduled(cron = "${rating.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        List<Long> productIds = productRepository.findAllIds();
+        int corrected = 0;
+        for (Long productId : productIds) {
+            Boolean changed = transactionTemplate.execute(status -> reconcileProduct(productId));
+            if (Boolean.TRUE.equals(changed)) {
+                corrected++;
+            }
+        }
+        logger.info("Rating stats reconciliation finished: {} products checked, {} corrected.", productIds.size(), corrected);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (reconcileOnStartup) {
+            reconcileAll();
+        }
+    }
+
+    // Recomputes a single aggregate row; returns true if the stored values had drifted.
+    private boolean reconcileProduct(Long productId) {
+        // Make sure there is a row to lock, so a concurrent first review cannot insert one underneath
+        statsRepository.insertIfAbsent(productId);
+        ProductRatingStats stored = statsRepository.findForUpdate(productId).orElse(null);
+
+        ProductRatingStats rebuilt = new ProductRatingStats(productId);
+        for (Object[] row : reviewRepository.countRatingsByProductId(productId)) {
+            rebuilt.addRating(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+
+        if (rebuilt.equals(stored)) {
+            return false;
+        }
+        statsRepository.save(rebuilt);
+        return true;
+    }
+}
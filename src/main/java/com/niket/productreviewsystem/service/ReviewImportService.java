@@ -0,0 +1,634 @@
+package com.niket.productreviewsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.niket.productreviewsystem.config.ReviewImportConfig;
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.ReviewFormDTO;
+import com.niket.productreviewsystem.model.ReviewImportJob;
+import com.niket.productreviewsystem.model.ReviewImportRejection;
+import com.niket.productreviewsystem.model.Role;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewImportJobRepository;
+import com.niket.productreviewsystem.repository.ReviewImportRejectionRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.RoleRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk review import from CSV or NDJSON files (marketplace migrations), run as background jobs.
+ * <p>
+ * A job streams its file through ReviewRecordReader and handles it in chunks of 'imports.chunk-size'
+ * records, each in its own transaction: the records are checked with the same rules as the review form
+ * (ReviewFormDTO, including @NoUrl), products and authors are resolved with one query per chunk, and the
+ * reviews are inserted in JDBC batches together with their rating aggregate updates, the rejected rows and
+ * the job's new checkpoint. A job that fails or is interrupted resumes after its last committed chunk.
+ * <p>
+ * Authors are matched by username; a username that does not exist yet gets an account that cannot log in
+ * (placeholder email and password) until it is claimed, as the form path needs an existing user.
+ */
+@Service
+public class ReviewImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewImportService.class);
+
+    public static final String IMPORT_RECORDS_COUNTER = "imports.records";
+
+    // Not a BCrypt hash, so no password ever matches it
+    private static final String IMPORTED_ACCOUNT_PASSWORD = "!imported-account";
+
+    private static final List<ReviewImportJob.Status> RESUMABLE =
+            List.of(ReviewImportJob.Status.FAILED, ReviewImportJob.Status.INTERRUPTED);
+
+    @Autowired
+    private ReviewImportJobRepository jobRepository;
+
+    @Autowired
+    private ReviewImportRejectionRepository rejectionRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier(ReviewImportConfig.IMPORT_TASK_EXECUTOR)
+    private ThreadPoolTaskExecutor importTaskExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${imports.chunk-size:1000}")
+    private int chunkSize;
+
+    private final Path uploadDir;
+    private final Path inboxDir;
+
+    // Workers hold the read lock while a chunk commits; shutdown takes the write lock, so a job stops between chunks
+    private final ReadWriteLock chunkLock = new ReentrantReadWriteLock();
+    private volatile boolean stopping;
+
+    public ReviewImportService(@Value("${imports.upload-dir:${storage.root:./storage}/imports/uploads}") String uploadDir,
+                               @Value("${imports.inbox-dir:${storage.root:./storage}/imports/inbox}") String inboxDir) {
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.inboxDir = Paths.get(inboxDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.uploadDir);
+            Files.createDirectories(this.inboxDir);
+            logger.info("Review import inbox directory initialized at: {}", this.inboxDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not initialize the review import directories", e);
+        }
+    }
+
+    public List<ReviewImportJob> getRecentJobs() {
+        return jobRepository.findTop20ByOrderByIdDesc();
+    }
+
+    /**
+     * Names of the importable files in the inbox directory, for files too large to upload through the browser.
+     */
+    public List<String> listInboxFiles() {
+        try (Stream<Path> files = Files.list(inboxDir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> formatOf(name) != null)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list the import inbox: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copies an uploaded file to the imports directory (streamed, not buffered in memory) and queues a job for it.
+     */
+    public ReviewImportJob importUpload(MultipartFile file, String createdBy) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("Please choose a file to import.");
+        }
+        // Browsers may send a full client path; keep only the name
+        String fileName = String.valueOf(file.getOriginalFilename()).replace('\\', '/');
+        fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
+        ReviewImportJob.Format format = requireFormat(fileName);
+
+        Path staged = uploadDir.resolve(UUID.randomUUID() + "." + format.name().toLowerCase(Locale.ROOT));
+        try {
+            file.transferTo(staged);
+        } catch (IOException e) {
+            deleteQuietly(staged);
+            throw new RuntimeException("Failed to upload the import file: " + e.getMessage());
+        }
+        return queue(fileName, format, staged, true, createdBy);
+    }
+
+    /**
+     * Queues a job for a file already placed in the inbox directory. The file is left in place.
+     */
+    public ReviewImportJob importInboxFile(String fileName, String createdBy) {
+        Path source = inboxDir.resolve(fileName).normalize();
+        if (!source.startsWith(inboxDir) || !Files.isRegularFile(source)) {
+            throw new RuntimeException("File not found in the import inbox: " + fileName);
+        }
+        return queue(source.getFileName().toString(), requireFormat(fileName), source, false, createdBy);
+    }
+
+    /**
+     * Requeues a failed or interrupted job; it continues after its last committed chunk.
+     */
+    public void resume(Long jobId) {
+        ReviewImportJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Import job not found with ID: " + jobId));
+        if (!RESUMABLE.contains(job.getStatus())) {
+            throw new RuntimeException("Only failed or interrupted imports can be resumed.");
+        }
+        if (!Files.isRegularFile(Paths.get(job.getSourcePath()))) {
+            throw new RuntimeException("The file of import " + jobId + " is no longer available.");
+        }
+        Integer moved = transactionTemplate.execute(status ->
+                jobRepository.transition(jobId, RESUMABLE, ReviewImportJob.Status.QUEUED));
+        if (moved == null || moved == 0) {
+            throw new RuntimeException("Only failed or interrupted imports can be resumed.");
+        }
+        submit(jobId);
+    }
+
+    /**
+     * Streams a job's rejected rows to the given output as CSV (record number, reason, original record).
+     */
+    @Transactional(readOnly = true) // The stream needs an open connection until it is fully consumed
+    public long writeRejectedRows(Long jobId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("record_number,reason,record\n");
+
+        long rows = 0;
+        try (Stream<Object[]> stream = rejectionRepository.streamReportByJobId(jobId)) {
+            Iterator<Object[]> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                writer.write(row[0] + "," + csv((String) row[1]) + "," + csv((String) row[2]) + "\n");
+                if (++rows % 500 == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    // Jobs whose worker died with the previous run wait for an admin to resume them
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedJobs() {
+        Integer interrupted = transactionTemplate.execute(status -> jobRepository.markUnfinishedAsInterrupted());
+        if (interrupted != null && interrupted > 0) {
+            logger.warn("{} review import job(s) were interrupted by the last shutdown and can be resumed.", interrupted);
+        }
+    }
+
+    // Runs before the executor is shut down and before the data source closes (this bean depends on both)
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        if (chunkLock.writeLock().tryLock(30, TimeUnit.SECONDS)) {
+            chunkLock.writeLock().unlock();
+        }
+    }
+
+    private ReviewImportJob queue(String fileName, ReviewImportJob.Format format, Path source,
+                                  boolean deleteSourceWhenDone, String createdBy) {
+        ReviewImportJob job = new ReviewImportJob();
+        job.setFileName(fileName);
+        job.setFormat(format);
+        job.setSourcePath(source.toString());
+        job.setDeleteSourceWhenDone(deleteSourceWhenDone);
+        job.setCreatedBy(createdBy);
+        job = jobRepository.save(job);
+        submit(job.getId());
+        return job;
+    }
+
+    private void submit(Long jobId) {
+        try {
+            importTaskExecutor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            finish(jobId, ReviewImportJob.Status.FAILED, "The import queue was full.");
+            throw new RuntimeException("Too many imports are queued. Resume this one once the others have finished.");
+        }
+    }
+
+    // ==========================================================
+    // Worker
+    // ==========================================================
+
+    private void run(Long jobId) {
+        // 1. Claim the job; a duplicate submission finds it already running
+        Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(jobId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        ReviewImportJob job = jobRepository.findById(jobId).orElseThrow();
+        long started = System.currentTimeMillis();
+        logger.info("Review import {} ({}) started at record {}.", jobId, job.getFileName(), job.getCheckpoint() + 1);
+
+        Path source = Paths.get(job.getSourcePath());
+        // InputStreamReader replaces malformed UTF-8 instead of failing the whole file
+        try (ReviewRecordReader reader = ReviewRecordReader.open(job.getFormat(),
+                new InputStreamReader(Files.newInputStream(source), StandardCharsets.UTF_8), objectMapper)) {
+
+            // 2. Skip the records committed by earlier runs
+            long checkpoint = job.getCheckpoint();
+            long skipped = 0;
+            while (skipped < checkpoint && reader.next() != null) {
+                skipped++;
+            }
+
+            // 3. One transaction per chunk; the checkpoint moves with it
+            List<ReviewRecordReader.ImportRecord> chunk = new ArrayList<>(chunkSize);
+            ReviewRecordReader.ImportRecord record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    checkpoint = importChunkUnlessStopping(jobId, chunk, checkpoint);
+                    if (checkpoint < 0) {
+                        return;
+                    }
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty() && importChunkUnlessStopping(jobId, chunk, checkpoint) < 0) {
+                return;
+            }
+
+            // 4. Done: an uploaded copy is no longer needed
+            finish(jobId, ReviewImportJob.Status.COMPLETED, null);
+            if (job.isDeleteSourceWhenDone()) {
+                deleteQuietly(source);
+            }
+            ReviewImportJob done = jobRepository.findById(jobId).orElseThrow();
+            logger.info("Review import {} completed in {} ms: {} imported, {} rejected.", jobId,
+                    System.currentTimeMillis() - started, done.getImportedCount(), done.getRejectedCount());
+        } catch (IOException | RuntimeException e) {
+            if (stopping) {
+                // Shutdown interrupts the worker, which also closes the file; the last chunk was committed or rolled back whole
+                logger.warn("Review import {} stopped by shutdown; it can be resumed.", jobId);
+                return;
+            }
+            logger.error("Review import {} failed.", jobId, e);
+            finish(jobId, ReviewImportJob.Status.FAILED, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    // Returns the new checkpoint, or -1 if the application is shutting down. The job is left RUNNING then;
+    // markInterruptedJobs flags it on the next startup.
+    private long importChunkUnlessStopping(Long jobId, List<ReviewRecordReader.ImportRecord> chunk, long checkpoint) {
+        chunkLock.readLock().lock();
+        try {
+            if (stopping) {
+                logger.warn("Review import {} stopped by shutdown after record {}; it can be resumed.", jobId, checkpoint);
+                return -1;
+            }
+            return importChunk(jobId, chunk, checkpoint);
+        } finally {
+            chunkLock.readLock().unlock();
+        }
+    }
+
+    private void finish(Long jobId, ReviewImportJob.Status status, String error) {
+        String message = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        transactionTemplate.executeWithoutResult(tx -> jobRepository.finish(jobId, status, LocalDateTime.now(), message));
+    }
+
+    // A record that passed the field checks, waiting for its product, author and duplicate checks
+    private record ReviewRow(ReviewRecordReader.ImportRecord source, Long productId, String username, int rating,
+                             String comment, LocalDateTime reviewDate, boolean verifiedPurchase) {
+    }
+
+    private record UserProduct(Long userId, Long productId) {
+    }
+
+    // Imports one chunk and returns the new checkpoint
+    private long importChunk(Long jobId, List<ReviewRecordReader.ImportRecord> records, long checkpoint) {
+        long[] counts = transactionTemplate.execute(status -> {
+            List<ReviewImportRejection> rejections = new ArrayList<>();
+
+            // 1. Field checks, with the review form's validation rules
+            List<ReviewRow> rows = new ArrayList<>(records.size());
+            for (ReviewRecordReader.ImportRecord record : records) {
+                String problem = record.error();
+                ReviewRow row = null;
+                if (problem == null) {
+                    try {
+                        row = toRow(record);
+                    } catch (RuntimeException e) {
+                        problem = e.getMessage();
+                    }
+                }
+                if (row != null) {
+                    rows.add(row);
+                } else {
+                    rejections.add(new ReviewImportRejection(jobId, record.number(), problem, record.raw()));
+                }
+            }
+
+            // 2. Products, one query for the chunk
+            Set<Long> productIds = rows.stream().map(ReviewRow::productId).collect(Collectors.toSet());
+            Set<Long> existingProducts = productIds.isEmpty() ? Set.of() : new HashSet<>(productRepository.findExistingIds(productIds));
+
+            // 3. Authors, one query for the chunk; unknown usernames get an imported account
+            Map<String, User> authors = resolveAuthors(rows, existingProducts, rejections, jobId);
+
+            // 4. One review per user and product, against the table and within the chunk
+            Set<UserProduct> reviewed = new HashSet<>();
+            List<Long> authorIds = authors.values().stream().map(User::getId).toList();
+            if (!authorIds.isEmpty() && !existingProducts.isEmpty()) {
+                for (Object[] pair : reviewRepository.findUserProductPairs(authorIds, existingProducts)) {
+                    reviewed.add(new UserProduct((Long) pair[0], (Long) pair[1]));
+                }
+            }
+
+            List<Review> reviews = new ArrayList<>(rows.size());
+            Map<Long, Product> productReferences = new HashMap<>();
+            Map<Long, Map<Integer, Long>> addedRatings = new HashMap<>();
+            for (ReviewRow row : rows) {
+                User author = authors.get(usernameKey(row.username()));
+                if (!existingProducts.contains(row.productId()) || author == null) {
+                    continue; // Rejected in step 3
+                }
+                if (!reviewed.add(new UserProduct(author.getId(), row.productId()))) {
+                    rejections.add(new ReviewImportRejection(jobId, row.source().number(),
+                            "User " + row.username() + " has already reviewed product " + row.productId() + ".", row.source().raw()));
+                    continue;
+                }
+                Review review = new Review();
+                review.setProduct(productReferences.computeIfAbsent(row.productId(), productRepository::getReferenceById));
+                review.setUser(author);
+                review.setRating(row.rating());
+                review.setComment(row.comment());
+                review.setReviewDate(row.reviewDate());
+                review.setVerifiedPurchase(row.verifiedPurchase());
+                reviews.add(review);
+                addedRatings.computeIfAbsent(row.productId(), productId -> new HashMap<>())
+                        .merge(row.rating(), 1L, Long::sum);
+            }
+
+            // 5. Insert (JDBC batches), one aggregate update per (product, rating), index after commit
+            reviewRepository.saveAll(reviews);
+            addedRatings.forEach((productId, byRating) ->
+                    byRating.forEach((rating, count) -> ratingStatsService.recordReviewsAdded(productId, rating, count)));
+            for (Review review : reviews) {
+                reviewSearchService.indexAfterCommit(review.getId(), review.getProduct().getId(), review.getComment());
+            }
+
+            // 6. Rejected rows and the checkpoint commit with the reviews
+            rejectionRepository.saveAll(rejections);
+            jobRepository.recordChunk(jobId, checkpoint + records.size(), reviews.size(), rejections.size());
+            return new long[]{reviews.size(), rejections.size()};
+        });
+
+        meterRegistry.counter(IMPORT_RECORDS_COUNTER, "result", "imported").increment(counts[0]);
+        meterRegistry.counter(IMPORT_RECORDS_COUNTER, "result", "rejected").increment(counts[1]);
+        return checkpoint + records.size();
+    }
+
+    // Finds or creates the author of every row whose product exists; rows that cannot get one are rejected.
+    // Keyed by usernameKey: MySQL compares usernames case-insensitively, so "Bob" and "bob" are one account.
+    private Map<String, User> resolveAuthors(List<ReviewRow> rows, Set<Long> existingProducts,
+                                             List<ReviewImportRejection> rejections, Long jobId) {
+        Map<String, String> usernames = new HashMap<>();
+        for (ReviewRow row : rows) {
+            if (existingProducts.contains(row.productId())) {
+                usernames.putIfAbsent(usernameKey(row.username()), row.username());
+            } else {
+                rejections.add(new ReviewImportRejection(jobId, row.source().number(),
+                        "Product not found: " + row.productId(), row.source().raw()));
+            }
+        }
+
+        Map<String, User> authors = new HashMap<>();
+        if (!usernames.isEmpty()) {
+            for (Object[] found : userRepository.findIdsByUsernameIn(usernames.values())) {
+                authors.put(usernameKey((String) found[0]), userRepository.getReferenceById((Long) found[1]));
+            }
+        }
+
+        Map<String, String> invalidUsernames = new HashMap<>();
+        List<User> created = new ArrayList<>();
+        Role userRole = null;
+        for (Map.Entry<String, String> entry : usernames.entrySet()) {
+            String key = entry.getKey();
+            String username = entry.getValue();
+            if (authors.containsKey(key)) {
+                continue;
+            }
+            if (userRole == null) {
+                userRole = roleRepository.findByName(Role.RoleName.ROLE_USER)
+                        .orElseThrow(() -> new RuntimeException("Error: Role ROLE_USER not found. Database must contain initial roles."));
+            }
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail("imported-" + shortHash(username) + "@imported.invalid");
+            user.setPassword(IMPORTED_ACCOUNT_PASSWORD);
+            user.setRoles(new HashSet<>(Set.of(userRole)));
+            String problem = violations(validator.validate(user));
+            if (problem != null) {
+                invalidUsernames.put(key, problem);
+            } else {
+                created.add(user);
+                authors.put(key, user);
+            }
+        }
+        userRepository.saveAll(created);
+
+        for (ReviewRow row : rows) {
+            String problem = invalidUsernames.get(usernameKey(row.username()));
+            if (problem != null && existingProducts.contains(row.productId())) {
+                rejections.add(new ReviewImportRejection(jobId, row.source().number(), problem, row.source().raw()));
+            }
+        }
+        return authors;
+    }
+
+    // Parses and validates the fields of one record; throws with a user-facing message if it cannot be imported
+    private ReviewRow toRow(ReviewRecordReader.ImportRecord record) {
+        String productId = trimToNull(record.field("product_id"));
+        if (productId == null) {
+            throw new RuntimeException("Product id is required.");
+        }
+        Long parsedProductId;
+        try {
+            parsedProductId = Long.parseLong(productId);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Product id must be a number.");
+        }
+
+        String username = trimToNull(record.field("username", "user"));
+        if (username == null) {
+            throw new RuntimeException("Username is required.");
+        }
+
+        ReviewFormDTO form = new ReviewFormDTO();
+        form.setProductId(parsedProductId);
+        form.setComment(record.field("comment"));
+        String rating = trimToNull(record.field("rating"));
+        if (rating != null) {
+            try {
+                form.setRating(Integer.parseInt(rating));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Rating must be a whole number.");
+            }
+        }
+        String problem = violations(validator.validate(form));
+        if (problem != null) {
+            throw new RuntimeException(problem);
+        }
+
+        LocalDateTime reviewDate = LocalDateTime.now();
+        String date = trimToNull(record.field("review_date"));
+        if (date != null) {
+            try {
+                reviewDate = date.length() == 10 ? LocalDate.parse(date).atStartOfDay() : LocalDateTime.parse(date);
+            } catch (DateTimeParseException e) {
+                throw new RuntimeException("Review date must be an ISO date or date-time, e.g. 2024-05-01T10:30:00.");
+            }
+        }
+        String verified = trimToNull(record.field("verified_purchase"));
+        boolean verifiedPurchase = "true".equalsIgnoreCase(verified) || "1".equals(verified);
+
+        return new ReviewRow(record, parsedProductId, username, form.getRating(), form.getComment(), reviewDate, verifiedPurchase);
+    }
+
+    private static String violations(Set<? extends ConstraintViolation<?>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" "));
+    }
+
+    private static String usernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // Placeholder emails must be unique per username and valid for the User constraints
+    private static String shortHash(String username) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(usernameKey(username).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ReviewImportJob.Format formatOf(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return ReviewImportJob.Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ReviewImportJob.Format.NDJSON;
+        }
+        return null;
+    }
+
+    private static ReviewImportJob.Format requireFormat(String fileName) {
+        ReviewImportJob.Format format = formatOf(fileName);
+        if (format == null) {
+            throw new RuntimeException("Unsupported import file: " + fileName + ". Use a .csv, .ndjson or .jsonl file.");
+        }
+        return format;
+    }
+
+    // Quotes a CSV field (RFC 4180), as in the review export
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete import file {}: {}", path, e.getMessage());
+        }
+    }
+}
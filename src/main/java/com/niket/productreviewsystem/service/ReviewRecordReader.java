@@ -0,0 +1,313 @@
+package com.niket.productreviewsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.niket.productreviewsystem.model.ReviewImportJob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a review import file one record at a time (see ReviewImportService), so memory use depends on the
+ * longest record, not on the size of the file.
+ * <p>
+ * CSV: RFC 4180 with a header row naming the columns; quoted fields may contain commas, doubled quotes and
+ * line breaks. NDJSON: one JSON object per line. Blank lines are skipped in both formats and do not count
+ * as records. A record longer than MAX_RECORD_CHARS is read to its end but only returned as an error.
+ */
+public abstract class ReviewRecordReader implements Closeable {
+
+    public static final int MAX_RECORD_CHARS = 100_000;
+
+    // Part of a record kept for the rejected-row report
+    public static final int MAX_KEPT_CHARS = 4_000;
+
+    /**
+     * One source record: 'number' is its 1-based position among the records (header excluded), 'fields'
+     * maps lower-case column names to values, 'raw' is the record as written (cut at MAX_KEPT_CHARS).
+     * 'error' is set, and 'fields' empty, when the record could not be parsed.
+     */
+    public record ImportRecord(long number, Map<String, String> fields, String raw, String error) {
+
+        public String field(String... names) {
+            for (String name : names) {
+                String value = fields.get(name);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean started;
+    private long recordNumber;
+
+    protected ReviewRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    public static ReviewRecordReader open(ReviewImportJob.Format format, Reader reader, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(reader);
+            case NDJSON -> new Ndjson(reader, objectMapper);
+        };
+    }
+
+    /**
+     * Returns the next record, or null at the end of the file.
+     */
+    public abstract ImportRecord next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    protected long nextRecordNumber() {
+        return ++recordNumber;
+    }
+
+    protected int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        char c = buffer[position++];
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                return read(); // UTF-8 byte order mark written by spreadsheet exports
+            }
+        }
+        return c;
+    }
+
+    protected void unread() {
+        position--;
+    }
+
+    private static String tooLong() {
+        return "Record is longer than " + MAX_RECORD_CHARS + " characters.";
+    }
+
+    // ==========================================================
+    // CSV
+    // ==========================================================
+
+    static class Csv extends ReviewRecordReader {
+
+        private final List<String> header;
+
+        Csv(Reader reader) throws IOException {
+            super(reader);
+            List<String> names = new ArrayList<>();
+            RawRecord first = readRecord();
+            if (first == null || first.error != null) {
+                throw new RuntimeException("The CSV file must start with a header row.");
+            }
+            for (String name : first.values) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+            if (!names.contains("product_id") || !names.contains("rating") || !(names.contains("username") || names.contains("user"))) {
+                throw new RuntimeException("The CSV header must name the product_id, username and rating columns.");
+            }
+            this.header = names;
+        }
+
+        @Override
+        public ImportRecord next() throws IOException {
+            RawRecord record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            long number = nextRecordNumber();
+            if (record.error != null) {
+                return new ImportRecord(number, Map.of(), record.raw, record.error);
+            }
+            Map<String, String> fields = new HashMap<>();
+            // Values beyond the header are ignored, missing trailing values are absent
+            Iterator<String> values = record.values.iterator();
+            for (String name : header) {
+                if (!values.hasNext()) {
+                    break;
+                }
+                fields.put(name, values.next());
+            }
+            return new ImportRecord(number, fields, record.raw, null);
+        }
+
+        private record RawRecord(List<String> values, String raw, String error) {
+        }
+
+        // Reads up to the next line break outside quotes; null at the end of the file. Blank lines are skipped.
+        private RawRecord readRecord() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == EOF) {
+                    return null;
+                }
+                if (c == '\n' || c == '\r') {
+                    continue;
+                }
+                unread();
+                return parseRecord();
+            }
+        }
+
+        private RawRecord parseRecord() throws IOException {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            StringBuilder raw = new StringBuilder();
+            long length = 0;
+            boolean quoted = false;
+            boolean atFieldStart = true;
+            String error = null;
+
+            while (true) {
+                int c = read();
+                if (c == EOF) {
+                    if (quoted && error == null) {
+                        error = "Unterminated quoted field.";
+                    }
+                    break;
+                }
+                if (!quoted && c == '\n') {
+                    break;
+                }
+                if (++length > MAX_RECORD_CHARS && error == null) {
+                    error = tooLong();
+                }
+                if (raw.length() < MAX_KEPT_CHARS) {
+                    raw.append((char) c);
+                }
+                if (error != null) {
+                    // Keep tracking quotes so the record still ends at the right line break
+                    if (c == '"') {
+                        quoted = !quoted;
+                    }
+                    continue;
+                }
+
+                if (quoted) {
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            value.append('"'); // Doubled quote inside a quoted field
+                            length++;
+                            if (raw.length() < MAX_KEPT_CHARS) {
+                                raw.append('"');
+                            }
+                        } else {
+                            quoted = false;
+                            if (following != EOF) {
+                                unread();
+                            }
+                        }
+                    } else {
+                        value.append((char) c);
+                    }
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                    atFieldStart = true;
+                    continue;
+                } else if (c == '"' && atFieldStart) {
+                    quoted = true;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                atFieldStart = false;
+            }
+
+            if (!raw.isEmpty() && raw.charAt(raw.length() - 1) == '\r') {
+                raw.setLength(raw.length() - 1);
+            }
+            if (error != null) {
+                return new RawRecord(List.of(), raw.toString(), error);
+            }
+            values.add(value.toString());
+            return new RawRecord(values, raw.toString(), null);
+        }
+    }
+
+    // ==========================================================
+    // NDJSON
+    // ==========================================================
+
+    static class Ndjson extends ReviewRecordReader {
+
+        private final ObjectMapper objectMapper;
+
+        Ndjson(Reader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ImportRecord next() throws IOException {
+            StringBuilder line = new StringBuilder();
+            while (true) {
+                line.setLength(0);
+                long length = 0;
+                int c;
+                while ((c = read()) != EOF && c != '\n') {
+                    if (++length <= MAX_RECORD_CHARS) {
+                        line.append((char) c);
+                    }
+                }
+                if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                    line.setLength(line.length() - 1);
+                }
+                if (!line.toString().isBlank()) {
+                    return toRecord(nextRecordNumber(), line, length > MAX_RECORD_CHARS);
+                }
+                if (c == EOF) {
+                    return null;
+                }
+            }
+        }
+
+        private ImportRecord toRecord(long number, StringBuilder line, boolean truncated) {
+            String raw = line.length() > MAX_KEPT_CHARS ? line.substring(0, MAX_KEPT_CHARS) : line.toString();
+            if (truncated) {
+                return new ImportRecord(number, Map.of(), raw, tooLong());
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line.toString());
+            } catch (JsonProcessingException e) {
+                return new ImportRecord(number, Map.of(), raw, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                return new ImportRecord(number, Map.of(), raw, "Each line must be a JSON object.");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (Map.Entry<String, JsonNode> entry : node.properties()) {
+                JsonNode value = entry.getValue();
+                if (!value.isNull()) {
+                    fields.put(entry.getKey().toLowerCase(Locale.ROOT), value.isValueNode() ? value.asText() : value.toString());
+                }
+            }
+            return new ImportRecord(number, fields, raw, null);
+        }
+    }
+}
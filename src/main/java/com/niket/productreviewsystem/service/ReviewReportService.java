@@ -1,22 +1,52 @@
 package com.niket.productreviewsystem.service;
 
+import com.niket.productreviewsystem.model.ReportedReviewDTO;
 import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.ReviewCursor;
 import com.niket.productreviewsystem.model.ReviewReport;
 import com.niket.productreviewsystem.model.User;
 import com.niket.productreviewsystem.repository.ReviewReportRepository;
 import com.niket.productreviewsystem.repository.ReviewRepository;
-import com.niket.productreviewsystem.repository.UserRepository;
+import com.niket.productreviewsystem.validator.TextScreener;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ReviewReportService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReviewReportService.class);
+
+    // Reviews per statement of the pending_reports repair
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
+
+    // Rewrites only the counts that differ from the pending rows, one id range at a time
+    private static final String RECONCILE_SQL = "UPDATE reviews SET pending_reports = "
+            + "(SELECT COUNT(*) FROM review_reports rr WHERE rr.review_id = reviews.id AND rr.is_processed = FALSE) "
+            + "WHERE id > ? AND id <= ? AND pending_reports <> "
+            + "(SELECT COUNT(*) FROM review_reports rr WHERE rr.review_id = reviews.id AND rr.is_processed = FALSE)";
+
+    // Cursor "sort" tag of the moderation queue; its key is the pending report count
+    private static final String QUEUE_SORT = "reports";
+
     @Autowired
     private ReviewReportRepository reportRepository;
 
@@ -24,40 +54,51 @@ public class ReviewReportService {
     private ReviewRepository reviewRepository; // Need to fetch the review entity
 
     @Autowired
-    private UserRepository userRepository; // Need to get the reporting user
+    private CurrentUserService currentUserService; // Resolves the reporting user
+
+    @Autowired
+    private TextScreeningService textScreeningService; // Link markers and blocklist
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${reports.pending-count.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
 
     private void validateReportDetail(String detail) {
         if (detail == null || detail.trim().isEmpty()) {
             return;
         }
 
-        // 1. URL Check (Prevent links)
-        // Simple regex check for common URL patterns (http, www, common domains)
-        String urlPattern = ".*(http|www|\\.com|\\.net|\\.org|\\.co).*";
-        if (detail.toLowerCase().matches(urlPattern)) {
-            throw new RuntimeException("Report detail cannot contain links or URLs.");
-        }
-
-        // 2. Word/Length Check (Max 100 words, using max 500 characters as proxy)
-        // A simple character count check is much more efficient than word counting in Java
+        // 1. Word/Length Check (Max 100 words, using max 500 characters as proxy)
+        // Checked first, so the content scan below never reads more than 500 characters
         if (detail.length() > 500) {
             throw new RuntimeException("Report detail exceeds the 500 character limit (approx. 100 words).");
         }
+
+        // 2. URL and blocklist check (Prevent links), one pass over the text
+        TextScreener.Match match = textScreeningService.screen(detail);
+        if (match != null) {
+            throw new RuntimeException(match.category() == TextScreener.Category.URL
+                    ? "Report detail cannot contain links or URLs."
+                    : "Report detail contains a word that is not allowed.");
+        }
     }
 
     /**
      * Handles the submission of a new report by a user.
      */
     @Transactional
+    @Timed(value = "reports.submit", description = "Review report submission")
     public void submitReport(Long reviewId, String reason, String otherReason) { // NEW PARAMETER
-        // 1. Get current authenticated user (existing logic)
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User reporter = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Reporter user not found. Please log in."));
+        // 1. Get current authenticated user (id from the session principal, no user select)
+        User reporter = currentUserService.getCurrentUserReference("Reporter user not found. Please log in.");
 
-        // 2. Get the review (existing logic)
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new RuntimeException("Review not found for reporting."));
+        // 2. Check the review exists by primary key; the report only needs a reference, not the loaded review
+        if (!reviewRepository.existsById(reviewId)) {
+            throw new RuntimeException("Review not found for reporting.");
+        }
+        Review review = reviewRepository.getReferenceById(reviewId);
 
         // 3. Prevent duplicate reports (existing logic)
         if (reportRepository.existsByReporterIdAndReviewId(reporter.getId(), reviewId)) {
@@ -84,28 +125,113 @@ public class ReviewReportService {
         report.setReportDate(LocalDateTime.now());
         report.setProcessed(false);
 
-        reportRepository.save(report);
+        // 6. Count it on the review. The report row is written first: markReportsAsProcessed also locks
+        // review_reports before reviews, so the two never wait on each other in opposite order
+        reportRepository.saveAndFlush(report);
+        reviewRepository.addPendingReports(reviewId, 1);
+    }
+
+    /**
+     * One page of the moderation queue: reviews with pending reports, most reported first.
+     * An empty cursor returns the first page. A page costs three bounded queries (an index seek on the
+     * maintained pending counts, display columns, reason breakdown) however many reports are pending.
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "reports.queue", description = "Loading one page of the report moderation queue")
+    public Slice<ReportedReviewDTO> getModerationQueue(String cursorToken, int size) {
+        Pageable limit = PageRequest.of(0, size);
+
+        // 1. Page of (reviewId, pending report count) rows, in keyset order
+        Slice<Object[]> groups;
+        if (cursorToken == null || cursorToken.isBlank()) {
+            groups = reportRepository.findPendingGroupsFirstPage(limit);
+        } else {
+            ReviewCursor cursor = ReviewCursor.decode(cursorToken, QUEUE_SORT);
+            groups = reportRepository.findPendingGroupsAfter(cursor.getIntKey(), cursor.getId(), limit);
+        }
+        if (groups.getContent().isEmpty()) {
+            return new SliceImpl<>(List.of(), limit, false);
+        }
+
+        // 2. Display columns of just these reviews
+        List<Long> reviewIds = groups.getContent().stream().map(row -> (Long) row[0]).toList();
+        Map<Long, ReportedReviewDTO> byId = new HashMap<>();
+        for (ReportedReviewDTO dto : reportRepository.findQueueDetails(reviewIds)) {
+            byId.put(dto.getReviewId(), dto);
+        }
+
+        // 3. Reason breakdown, most frequent reason first, and the latest report of each review
+        for (Object[] row : reportRepository.countPendingReasons(reviewIds)) {
+            ReportedReviewDTO dto = byId.get((Long) row[0]);
+            if (dto != null) {
+                dto.getReasons().put((String) row[1], (Long) row[2]);
+                LocalDateTime reportDate = (LocalDateTime) row[3];
+                if (dto.getLastReportDate() == null || reportDate.isAfter(dto.getLastReportDate())) {
+                    dto.setLastReportDate(reportDate);
+                }
+            }
+        }
+
+        // 4. Keep the keyset order; a review deleted since step 1 simply drops out of the page
+        List<ReportedReviewDTO> content = new ArrayList<>();
+        for (Object[] row : groups.getContent()) {
+            ReportedReviewDTO dto = byId.get((Long) row[0]);
+            if (dto != null) {
+                dto.setPendingReports((Integer) row[1]);
+                content.add(dto);
+            }
+        }
+        return new SliceImpl<>(content, limit, groups.hasNext());
     }
 
     /**
-     * Gets a list of all reports that have not yet been processed by an admin.
+     * Returns the cursor token for the queue page following the given slice, or null on the last page.
      */
-    public List<ReviewReport> getPendingReports() {
-        // Use the dedicated repository method with JOIN FETCH
-        return reportRepository.findPendingReportsWithDetails();
+    public String getNextCursor(Slice<ReportedReviewDTO> slice) {
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return null;
+        }
+        List<ReportedReviewDTO> content = slice.getContent();
+        ReportedReviewDTO last = content.get(content.size() - 1);
+        return ReviewCursor.of(QUEUE_SORT, last.getPendingReports(), last.getReviewId()).encode();
     }
 
     /**
-     * Marks a report as processed (after admin action is taken).
+     * Marks every pending report of a review as processed (the admin keeps the review).
+     * Returns the number of reports closed.
      */
     @Transactional
-    public ReviewReport markReportAsProcessed(Long reportId) { // CHANGE RETURN TYPE to ReviewReport
-        ReviewReport report = reportRepository.findById(reportId)
-                .orElseThrow(() -> new RuntimeException("Report not found."));
-
-        report.setProcessed(true);
-        // The save method is not strictly necessary here because @Transactional handles persistence,
-        // but keeping it ensures immediate flush and clarity.
-        return reportRepository.save(report); // RETURN THE SAVED REPORT
+    public int markReportsAsProcessed(Long reviewId) {
+        int processed = reportRepository.markPendingProcessed(reviewId);
+        if (processed == 0) {
+            throw new RuntimeException("No pending reports found for Review ID " + reviewId + ".");
+        }
+        // Subtract what was closed rather than resetting to zero: a report submitted meanwhile stays counted
+        reviewRepository.addPendingReports(reviewId, -processed);
+        return processed;
+    }
+
+    /**
+     * Recounts reviews.pending_reports from the unprocessed reports, walking the 'reviews' table by id range,
+     * to repair drift and to fill rows that predate the column. Returns the number of corrected rows.
+     */
+    @Scheduled(cron = "${reports.pending-count.reconcile-cron:0 15 4 * * *}")
+    public int reconcilePendingCounts() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM reviews", Long.class);
+        int corrected = 0;
+        if (maxId != null) {
+            for (long afterId = 0; afterId < maxId; afterId += RECONCILE_CHUNK_SIZE) {
+                corrected += jdbcTemplate.update(RECONCILE_SQL, afterId, afterId + RECONCILE_CHUNK_SIZE);
+            }
+        }
+        logger.info("Pending report count reconcile finished: {} reviews corrected.", corrected);
+        return corrected;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (reconcileOnStartup) {
+            reconcilePendingCounts();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,496 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.ReviewSearchResultDTO;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over review comments, backed by an embedded Lucene index.
+ * <p>
+ * The database stays the source of truth: the index only holds (review id, product id, analyzed comment),
+ * is updated after the commit of every review insert or delete, and is rebuilt in bulk from the 'reviews'
+ * table on demand, or at startup unless the index on disk was closed cleanly after a complete rebuild.
+ * A rebuild writes a separate index and swaps it in only once it is complete. A search ranks matches by BM25,
+ * takes the ids of the requested page and loads those rows in one query. New reviews become searchable
+ * within one refresh interval.
+ */
+@Service
+public class ReviewSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSearchService.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_PRODUCT_ID = "productId";
+    private static final String FIELD_COMMENT = "comment";
+    private static final String FIELD_GENERATION = "generation";
+
+    // Commit user data: the generation of the last complete rebuild, and a flag only the shutdown commit sets
+    private static final String COMMIT_GENERATION = "generation";
+    private static final String COMMIT_CLOSED_CLEANLY = "closedCleanly";
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    // English stemming and stop words: "batteries" finds "battery", "the" matches nothing
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final Directory directory;
+    // Null when the index is kept in memory
+    private final Path indexPath;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    @Value("${search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    // Deepest result a search pages to; totals beyond it are reported as this many
+    @Value("${search.max-results:1000}")
+    private int maxResults;
+
+    // Stamped on every document; swapping a rebuilt index in drops all documents of the older generations
+    private volatile String generation = UUID.randomUUID().toString();
+
+    // True once the index holds a complete rebuild (this run's, or the one restored from disk)
+    private volatile boolean generationComplete;
+
+    // The index on disk holds a complete rebuild plus every change made until a clean shutdown
+    private final boolean currentOnOpen;
+
+    // Inserts and deletes that happen while rebuild() scans the table are re-applied to the new index before the swap
+    private volatile boolean rebuilding;
+    private final Map<Long, IndexedReview> reviewsIndexedDuringRebuild = new ConcurrentHashMap<>();
+    private final Set<Long> reviewsRemovedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Set<Long> productsRemovedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    // One rebuild at a time; a lock instead of 'synchronized' so a virtual thread waiting on JDBC does not pin its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Writer changes, refreshes and commits share it; the rebuild swap takes it exclusively, so none sees it half done
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private record IndexedReview(Long productId, String comment) {
+    }
+
+    public ReviewSearchService(@Value("${search.index.dir:${storage.root:./storage}/search/reviews}") String indexDir) {
+        try {
+            // A blank directory keeps the index in memory (tests, benchmarks)
+            if (indexDir.isBlank()) {
+                this.indexPath = null;
+                this.directory = new ByteBuffersDirectory();
+            } else {
+                this.indexPath = Paths.get(indexDir).toAbsolutePath().normalize();
+                Files.createDirectories(indexPath);
+                this.directory = FSDirectory.open(indexPath);
+            }
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.currentOnOpen = readCommitData();
+            this.searcherManager = new SearcherManager(writer, null);
+            logger.info("Review search index opened at: {}", indexDir.isBlank() ? "(memory)" : indexDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open the review search index", e);
+        }
+    }
+
+    /**
+     * Searches review comments, optionally within one product. Supports the simple query syntax:
+     * "quoted phrases", prefix*, -exclusion and a|b; all other terms are required.
+     * Returns an empty page for a blank (or stop-word-only) query.
+     */
+    @Timed("reviews.search")
+    public Page<ReviewSearchResultDTO> search(String queryText, Long productId, Pageable pageable) {
+        Query textQuery = parse(queryText);
+        if (textQuery == null) {
+            return Page.empty(pageable);
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(textQuery, BooleanClause.Occur.MUST);
+        if (productId != null) {
+            query.add(new TermQuery(new Term(FIELD_PRODUCT_ID, productId.toString())), BooleanClause.Occur.FILTER);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), maxResults);
+        int to = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), maxResults);
+
+        // 1. Ranked ids of the requested page from the index
+        List<Long> ids = new ArrayList<>();
+        long total;
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query.build(), Math.max(to, 1));
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = from; i < topDocs.scoreDocs.length && i < to; i++) {
+                    Document document = storedFields.document(topDocs.scoreDocs[i].doc, Set.of(FIELD_ID));
+                    ids.add(Long.valueOf(document.get(FIELD_ID)));
+                }
+                total = Math.min(topDocs.totalHits.value, maxResults);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Review search is temporarily unavailable.", e);
+        }
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        // 2. Their rows in one query, put back in rank order (a review deleted since the last refresh is skipped)
+        Map<Long, ReviewSearchResultDTO> rows = reviewRepository.findSearchResultsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ReviewSearchResultDTO::getId, Function.identity()));
+        List<ReviewSearchResultDTO> results = ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(results, pageable, total);
+    }
+
+    /**
+     * Indexes a new review once the transaction inserting it has committed.
+     */
+    public void indexAfterCommit(Long reviewId, Long productId, String comment) {
+        afterCommit(() -> index(reviewId, productId, comment));
+    }
+
+    /**
+     * Removes a review from the index once the transaction deleting it has committed.
+     */
+    public void removeAfterCommit(Long reviewId) {
+        afterCommit(() -> delete(() -> reviewsRemovedDuringRebuild.add(reviewId), new Term(FIELD_ID, reviewId.toString())));
+    }
+
+    /**
+     * Removes several reviews from the index in one writer call once the transaction deleting them has committed.
+     */
+    public void removeAfterCommit(Collection<Long> reviewIds) {
+        List<Long> ids = List.copyOf(reviewIds);
+        afterCommit(() -> delete(() -> reviewsRemovedDuringRebuild.addAll(ids),
+                ids.stream().map(id -> new Term(FIELD_ID, id.toString())).toArray(Term[]::new)));
+    }
+
+    /**
+     * Removes all reviews of a deleted product once the transaction deleting it has committed.
+     */
+    public void removeProductAfterCommit(Long productId) {
+        afterCommit(() -> delete(() -> productsRemovedDuringRebuild.add(productId),
+                new Term(FIELD_PRODUCT_ID, productId.toString())));
+    }
+
+    /**
+     * Rebuilds the whole index from the 'reviews' table, walking it by primary key in chunks, into a separate
+     * index that replaces the current one once it is complete. Searches keep using the previous index until then,
+     * and keep it if the rebuild fails. Returns the number of reviews indexed.
+     */
+    public long rebuild() {
+        rebuildLock.lock();
+        try {
+            return rebuildIndex();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private long rebuildIndex() {
+        long started = System.currentTimeMillis();
+        long indexed = 0;
+        String newGeneration = UUID.randomUUID().toString();
+        rebuilding = true;
+        try (Directory stagingDirectory = openStagingDirectory();
+             IndexWriter staging = new IndexWriter(stagingDirectory, new IndexWriterConfig(analyzer))) {
+            // 1. Index the whole table into the staging index; the live index is not touched
+            long afterId = 0;
+            List<Object[]> chunk;
+            do {
+                chunk = reviewRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+                for (Object[] row : chunk) {
+                    Long reviewId = (Long) row[0];
+                    staging.addDocument(toDocument(reviewId, (Long) row[1], (String) row[2], newGeneration));
+                    afterId = reviewId;
+                }
+                indexed += chunk.size();
+            } while (chunk.size() == REBUILD_CHUNK_SIZE);
+
+            swapLock.writeLock().lock();
+            try {
+                // 2. Re-apply what the live index received during the scan
+                for (Map.Entry<Long, IndexedReview> review : reviewsIndexedDuringRebuild.entrySet()) {
+                    // updateDocument, not addDocument: the scan may have found the review too
+                    staging.updateDocument(new Term(FIELD_ID, review.getKey().toString()), toDocument(review.getKey(),
+                            review.getValue().productId(), review.getValue().comment(), newGeneration));
+                }
+                for (Long reviewId : reviewsRemovedDuringRebuild) {
+                    staging.deleteDocuments(new Term(FIELD_ID, reviewId.toString()));
+                }
+                for (Long productId : productsRemovedDuringRebuild) {
+                    staging.deleteDocuments(new Term(FIELD_PRODUCT_ID, productId.toString()));
+                }
+                staging.close();
+
+                // 3. Swap: add the staged documents (all or none), then drop every older generation
+                writer.addIndexes(stagingDirectory);
+                writer.deleteDocuments(new BooleanQuery.Builder()
+                        .add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER)
+                        .add(new TermQuery(new Term(FIELD_GENERATION, newGeneration)), BooleanClause.Occur.MUST_NOT)
+                        .build());
+                generation = newGeneration;
+                generationComplete = true;
+                writer.setLiveCommitData(commitData(false));
+                writer.commit();
+                searcherManager.maybeRefresh();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            // Searches keep the previous index (unless only the final commit failed; the periodic commit retries it)
+            throw new RuntimeException("Could not rebuild the review search index", e);
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                rebuilding = false;
+                reviewsIndexedDuringRebuild.clear();
+                reviewsRemovedDuringRebuild.clear();
+                productsRemovedDuringRebuild.clear();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            deleteStagingFiles();
+        }
+        logger.info("Review search index rebuilt: {} reviews in {} ms.", indexed, System.currentTimeMillis() - started);
+        return indexed;
+    }
+
+    /**
+     * Rebuilds the index at startup, unless it was closed cleanly after a complete rebuild: it then already
+     * holds every review, and only a database restored underneath it needs a rebuild from the admin dashboard.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        if (currentOnOpen) {
+            logger.info("Review search index is current; skipping the startup rebuild.");
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Makes recent index changes visible to searches (near-real-time reader, no commit needed).
+     */
+    @Scheduled(fixedDelayString = "${search.refresh-interval-ms:1000}")
+    public void refresh() {
+        swapLock.readLock().lock();
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            logger.warn("Could not refresh the review search index: {}", e.getMessage());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Bounds what a crash loses; after a crash the next startup rebuilds anyway, from the database
+    @Scheduled(fixedDelayString = "${search.commit-interval-ms:60000}")
+    public void commit() {
+        swapLock.readLock().lock();
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not commit the review search index: {}", e.getMessage());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        swapLock.writeLock().lock();
+        try {
+            // Tells the next startup that nothing was lost since the last rebuild (rebuildOnStartup)
+            writer.setLiveCommitData(commitData(true));
+            writer.commit();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        writer.close();
+        directory.close();
+    }
+
+    private void index(Long reviewId, Long productId, String comment) {
+        swapLock.readLock().lock();
+        try {
+            if (rebuilding) {
+                reviewsIndexedDuringRebuild.put(reviewId, new IndexedReview(productId, comment));
+            }
+            writer.updateDocument(new Term(FIELD_ID, reviewId.toString()), toDocument(reviewId, productId, comment, generation));
+        } catch (IOException e) {
+            // The review is saved; it becomes searchable again with the next rebuild
+            logger.error("Could not index review {}.", reviewId, e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // recordForRebuild notes the delete for a rebuild in progress, which re-applies it to the new index
+    private void delete(Runnable recordForRebuild, Term... terms) {
+        swapLock.readLock().lock();
+        try {
+            if (rebuilding) {
+                recordForRebuild.run();
+            }
+            writer.deleteDocuments(terms);
+        } catch (IOException e) {
+            // Search results are loaded from the database, so a stale entry is skipped there
+            logger.error("Could not remove {} from the review search index.", Arrays.toString(terms), e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Restores the generation of the last commit; returns true if that commit was made by a clean shutdown
+    // after a complete rebuild. Clears the flag on disk right away, so a crash from here on is detected.
+    private boolean readCommitData() throws IOException {
+        Map<String, String> committed = new HashMap<>();
+        Iterable<Map.Entry<String, String>> data = writer.getLiveCommitData();
+        if (data != null) {
+            data.forEach(entry -> committed.put(entry.getKey(), entry.getValue()));
+        }
+        String committedGeneration = committed.get(COMMIT_GENERATION);
+        if (committedGeneration == null) {
+            return false;
+        }
+        generation = committedGeneration;
+        generationComplete = true;
+        writer.setLiveCommitData(commitData(false));
+        writer.commit();
+        return Boolean.parseBoolean(committed.get(COMMIT_CLOSED_CLEANLY));
+    }
+
+    private Iterable<Map.Entry<String, String>> commitData(boolean closedCleanly) {
+        if (!generationComplete) {
+            return Map.<String, String>of().entrySet();
+        }
+        return Map.of(COMMIT_GENERATION, generation, COMMIT_CLOSED_CLEANLY, Boolean.toString(closedCleanly)).entrySet();
+    }
+
+    private Document toDocument(Long reviewId, Long productId, String comment, String documentGeneration) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, reviewId.toString(), Field.Store.YES));
+        document.add(new StringField(FIELD_PRODUCT_ID, productId.toString(), Field.Store.NO));
+        document.add(new TextField(FIELD_COMMENT, comment != null ? comment : "", Field.Store.NO));
+        document.add(new StringField(FIELD_GENERATION, documentGeneration, Field.Store.NO));
+        return document;
+    }
+
+    // The staging index of a rebuild: in memory like the live one, or in a directory next to it
+    private Directory openStagingDirectory() throws IOException {
+        if (indexPath == null) {
+            return new ByteBuffersDirectory();
+        }
+        deleteStagingFiles();
+        Files.createDirectories(stagingPath());
+        return FSDirectory.open(stagingPath());
+    }
+
+    private void deleteStagingFiles() {
+        if (indexPath == null || !Files.isDirectory(stagingPath())) {
+            return;
+        }
+        try {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(stagingPath())) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(stagingPath());
+        } catch (IOException e) {
+            // Cleared again by the next rebuild
+            logger.warn("Could not delete the staging search index {}: {}", stagingPath(), e.getMessage());
+        }
+    }
+
+    private Path stagingPath() {
+        return indexPath.resolveSibling(indexPath.getFileName() + "-rebuild");
+    }
+
+    private Query parse(String queryText) {
+        if (queryText == null || queryText.isBlank()) {
+            return null;
+        }
+        String text = queryText.length() > MAX_QUERY_LENGTH ? queryText.substring(0, MAX_QUERY_LENGTH) : queryText;
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_COMMENT);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        return parser.parse(text);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -3,29 +3,28 @@ package com.niket.productreviewsystem.service;
 import com.niket.productreviewsystem.model.*;
 import com.niket.productreviewsystem.repository.ProductRepository;
 import com.niket.productreviewsystem.repository.ReviewRepository;
-import com.niket.productreviewsystem.repository.ReviewVoteRepository;
-import com.niket.productreviewsystem.repository.UserRepository;
+import com.niket.productreviewsystem.service.ImageUploadService.ImageTarget;
+import com.niket.productreviewsystem.service.ImageUploadService.StagedImage;
+import com.niket.productreviewsystem.service.VoteIngestionService.VoteCommand;
+import com.niket.productreviewsystem.service.VoteIngestionService.VoteResult;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort; // NEW IMPORT
 import org.springframework.data.domain.PageRequest; // NEW IMPORT
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 public class ReviewService {
@@ -40,88 +39,91 @@ public class ReviewService {
     private ProductRepository productRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUserService currentUserService;
 
     @Autowired
-    private ReviewVoteRepository voteRepository;
+    private VoteIngestionService voteIngestionService;
 
-    // The root path where files are physically saved, initialized via constructor
-    private final Path uploadRootPath;
+    @Autowired
+    private RatingStatsService ratingStatsService;
 
-    /**
-     * Constructor for ReviewService, used to initialize the upload directory path.
-     * The path string is injected using @Value from application.properties.
-     */
-    public ReviewService(@Value("${review.upload.dir}") String uploadDirStr) {
-        this.uploadRootPath = Paths.get(uploadDirStr).normalize();
+    @Autowired
+    private HelpfulVoteCounter helpfulVoteCounter;
 
-        try {
-            Files.createDirectories(this.uploadRootPath);
-            logger.info("Upload directory initialized successfully at: {}", this.uploadRootPath.toAbsolutePath());
-        } catch (IOException e) {
-            logger.error("Could not initialize upload directory: {}", this.uploadRootPath.toAbsolutePath(), e);
-            throw new RuntimeException("Could not initialize upload directory", e);
-        }
-    }
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
+    /**
+     * Saves a new review. The image (if any) is streamed to staging before the transaction starts,
+     * so a slow upload never holds a DB connection; it is checked and published asynchronously after commit.
+     */
+    @Timed(value = "reviews.save", description = "Review submission, including staging the image upload")
     public void saveReview(ReviewFormDTO dto) {
-        // 1. Get the current authenticated user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-
-        // 2. Get the product
-        var product = productRepository.findById(dto.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        // Check if the user has already reviewed this product
-        if (reviewRepository.existsByUserIdAndProductId(user.getId(), product.getId())) {
-            throw new RuntimeException("You have already submitted a review for this product.");
-        }
+        // 1. Stage the upload outside any transaction
+        StagedImage stagedImage = imageUploadService.stage(dto.getImageFile(), ImageTarget.REVIEW);
 
-        Review review = new Review();
-        review.setProduct(product);
-        review.setUser(user);
-        review.setRating(dto.getRating());
-        review.setComment(dto.getComment());
-        review.setReviewDate(LocalDateTime.now());
-        review.setVerifiedPurchase(true);
-
-        // 3. Handle file upload (local storage)
-        MultipartFile imageFile = dto.getImageFile();
-        if (imageFile != null && !imageFile.isEmpty()) {
-            try {
-                // Generate unique file name
-                String originalFilename = imageFile.getOriginalFilename();
-                String fileExtension = "";
-                if (originalFilename != null && originalFilename.lastIndexOf(".") != -1) {
-                    fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        try {
+            // The review insert and the rating aggregate update commit together
+            transactionTemplate.executeWithoutResult(status -> {
+                // 2. Get the current authenticated user (id from the session principal, no user select)
+                User user = currentUserService.getCurrentUserReference("User not found or not logged in.");
+
+                // 3. Get the product
+                var product = productRepository.findById(dto.getProductId())
+                        .orElseThrow(() -> new RuntimeException("Product not found"));
+
+                // Check if the user has already reviewed this product
+                if (reviewRepository.existsByUserIdAndProductId(user.getId(), product.getId())) {
+                    throw new RuntimeException("You have already submitted a review for this product.");
                 }
 
-                String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-
-                // Save the file locally to the path resolved against the CWD
-                Path filePath = this.uploadRootPath.resolve(uniqueFileName);
-                Files.copy(imageFile.getInputStream(), filePath);
-                logger.info("Saved file successfully to: {}", filePath.toAbsolutePath());
+                Review review = new Review();
+                review.setProduct(product);
+                review.setUser(user);
+                review.setRating(dto.getRating());
+                review.setComment(dto.getComment());
+                review.setReviewDate(LocalDateTime.now());
+                review.setVerifiedPurchase(true);
+
+                // 4. The image path is filled in once the staged upload has been checked and placed
+                if (stagedImage != null) {
+                    review.setImageStatus(ImageStatus.PENDING);
+                }
 
-                // Store the public URL path in the database.
-                review.setImagePath("/uploads/" + uniqueFileName);
-            } catch (IOException e) {
-                logger.error("Failed to upload image for review.", e);
-                throw new RuntimeException("Failed to upload image: " + e.getMessage());
-            }
+                // 5. Save the review entity and count it in the product's rating aggregate
+                reviewRepository.save(review);
+                ratingStatsService.recordReviewAdded(product.getId(), review.getRating());
+                reviewSearchService.indexAfterCommit(review.getId(), product.getId(), review.getComment());
+
+                if (stagedImage != null) {
+                    Long reviewId = review.getId();
+                    imageUploadService.placeAfterCommit(stagedImage, (imageStatus, image) -> image == null
+                            ? reviewRepository.updateImage(reviewId, imageStatus, null, null, null) > 0
+                            : reviewRepository.updateImage(reviewId, imageStatus, image.getImagePath(),
+                            image.getThumbnailPath(), image.getPreviewPath()) > 0);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rolled back (or never registered for placement): drop the staged file
+            imageUploadService.discard(stagedImage);
+            throw e;
         }
-
-        // 4. Save the review entity
-        reviewRepository.save(review);
     }
 
     // --- NEW METHOD FOR PAGINATION (Replaces getReviewsByProductId) ---
     /**
      * Retrieves paginated and sorted reviews for a given product ID.
      */
-    public Page<Review> getPaginatedReviewsByProductId(Long productId, String sortOrder, Pageable pageable) {
+    public Page<ReviewDisplayDTO> getPaginatedReviewsByProductId(Long productId, String sortOrder, Pageable pageable) {
 
         Sort customSort;
         // 1. Determine the Sort object based on the custom 'sortOrder' string
@@ -133,7 +135,8 @@ public class ReviewService {
                 customSort = Sort.by("rating").ascending();
                 break;
             case "helpful":
-                customSort = Sort.by("helpfulVotes").descending();
+                // Decayed ranking score, id as tie-breaker: together they follow idx_product_helpful_score_id
+                customSort = Sort.by("helpfulScore").descending().and(Sort.by("id").descending());
                 break;
             case "newest":
             default:
@@ -149,9 +152,71 @@ public class ReviewService {
                 customSort
         );
 
-        // 3. Call the repository method (requires you to define a standard JpaRepository method:
-        // Page<Review> findByProductId(Long productId, Pageable pageable); in ReviewRepository)
-        return reviewRepository.findByProductId(productId, sortedPageable);
+        // 3. Call the projection query: rows come back with the author's username already joined,
+        // so rendering the page does not trigger a lazy load of Review.user per review
+        return reviewPageTimer(sortOrder, "offset")
+                .record(() -> reviewRepository.findDisplayByProductId(productId, sortedPageable));
+    }
+
+    /**
+     * Keyset (cursor) variant of getPaginatedReviewsByProductId.
+     * An empty cursor returns the first page; otherwise the page starts right after the review
+     * the cursor points to. Returns a Slice, so no count query is issued, and the cost of a page
+     * does not grow with how deep the reader has scrolled.
+     */
+    public Slice<ReviewDisplayDTO> getReviewSliceByProductId(Long productId, String sortOrder, String cursorToken, int size) {
+        return reviewPageTimer(sortOrder, "keyset")
+                .record(() -> findReviewSlice(productId, normalizeSort(sortOrder), cursorToken, size));
+    }
+
+    private Slice<ReviewDisplayDTO> findReviewSlice(Long productId, String sort, String cursorToken, int size) {
+        Pageable limit = PageRequest.of(0, size);
+
+        if (cursorToken == null || cursorToken.isBlank()) {
+            return switch (sort) {
+                case "helpful" -> reviewRepository.findHelpfulFirstPage(productId, limit);
+                case "highest" -> reviewRepository.findHighestFirstPage(productId, limit);
+                case "lowest" -> reviewRepository.findLowestFirstPage(productId, limit);
+                default -> reviewRepository.findNewestFirstPage(productId, limit);
+            };
+        }
+
+        ReviewCursor cursor = ReviewCursor.decode(cursorToken, sort);
+        return switch (sort) {
+            case "helpful" -> reviewRepository.findHelpfulAfter(productId, cursor.getScoreKey(), cursor.getId(), limit);
+            case "highest" -> reviewRepository.findHighestAfter(productId, cursor.getIntKey(), cursor.getId(), limit);
+            case "lowest" -> reviewRepository.findLowestAfter(productId, cursor.getIntKey(), cursor.getId(), limit);
+            default -> reviewRepository.findNewestAfter(productId, cursor.getDateKey(), cursor.getId(), limit);
+        };
+    }
+
+    /**
+     * Returns the cursor token for the page following the given slice, or null on the last page.
+     */
+    public String getNextCursor(Slice<ReviewDisplayDTO> slice, String sortOrder) {
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return null;
+        }
+        List<ReviewDisplayDTO> content = slice.getContent();
+        return ReviewCursor.after(content.get(content.size() - 1), normalizeSort(sortOrder)).encode();
+    }
+
+    // One timer per (sort, pagination mode); the sort tag is normalized so request values cannot create new series
+    private Timer reviewPageTimer(String sortOrder, String mode) {
+        return Timer.builder("reviews.page")
+                .description("Loading one page of a product's reviews")
+                .tag("sort", normalizeSort(sortOrder))
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    // Maps any unknown sort value to the default, mirroring the switch in getPaginatedReviewsByProductId
+    private String normalizeSort(String sortOrder) {
+        String sort = sortOrder == null ? "newest" : sortOrder.toLowerCase();
+        return switch (sort) {
+            case "helpful", "highest", "lowest" -> sort;
+            default -> "newest";
+        };
     }
 
     // NOTE: The old 'getReviewsByProductId' method is removed as it's no longer used
@@ -159,68 +224,63 @@ public class ReviewService {
 
 
     /**
-     * Calculates the average rating for a product.
+     * Returns the average rating for a product, read from the precomputed rating aggregate.
      */
     public double getAverageRating(Long productId) {
-        // Use the simple fetch method to get all reviews for calculation (no pagination needed here)
-        List<Review> reviews = reviewRepository.findByProductId(productId);
+        // Single primary-key lookup instead of loading every review of the product
+        return ratingStatsService.getStats(productId).getAverageRating();
+    }
 
-        if (reviews.isEmpty()) {
-            return 0.0;
-        }
+    /**
+     * Returns the count, sum and star histogram for a product (O(1), see RatingStatsService).
+     */
+    public ProductRatingStats getRatingStats(Long productId) {
+        return ratingStatsService.getStats(productId);
+    }
 
-        double sum = reviews.stream().mapToInt(Review::getRating).sum();
-        // Return rounded average to one decimal place
-        return Math.round((sum / reviews.size()) * 10.0) / 10.0;
+    /**
+     * Returns the aggregates of a whole page of products in a single query, keyed by product id.
+     */
+    public Map<Long, ProductRatingStats> getRatingStats(Collection<Long> productIds) {
+        return ratingStatsService.getStats(productIds);
     }
 
     /**
-     * Calculates the count of reviews for a product.
+     * Returns the count of reviews for a product.
      */
     public long getReviewCount(Long productId) {
-        return reviewRepository.countByProductId(productId);
+        return ratingStatsService.getStats(productId).getReviewCount();
     }
 
     // --- REPLACING addHelpfulVote with the new, robust addVote method ---
-    @Transactional
+    // No transaction here: the vote is written by the batched writer (VoteIngestionService), and this
+    // thread must not hold a connection while it waits for the result.
+    @Timed(value = "reviews.vote", description = "Helpful vote / un-vote")
     public void addVote(Long reviewId, String type) {
-        // 1. Get current authenticated user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found or not logged in."));
-
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new RuntimeException("Review not found for voting."));
-
-        Optional<ReviewVote> existingVote = voteRepository.findByUserIdAndReviewId(user.getId(), reviewId);
+        // 1. Get current authenticated user (id from the session principal, no user select)
+        Long userId = currentUserService.getCurrentUserId("User not found or not logged in.");
 
+        boolean up;
         if (type.equalsIgnoreCase("UP")) {
-            if (existingVote.isPresent()) {
-                throw new RuntimeException("You have already marked this review as helpful.");
-            }
-            // 2. ACTION: Record the vote and update the count
-            ReviewVote vote = new ReviewVote();
-            vote.setUser(user);
-            vote.setReview(review);
-            voteRepository.save(vote);
-
-            // Atomically increment the vote count on the Review entity
-            review.setHelpfulVotes(review.getHelpfulVotes() + 1);
-            reviewRepository.save(review);
+            up = true;
         } else if (type.equalsIgnoreCase("DOWN")) {
-            if (existingVote.isEmpty()) {
-                throw new RuntimeException("You have not marked this review as helpful to un-vote.");
-            }
-            // 2. ACTION: Remove the vote and decrement the count
-            voteRepository.delete(existingVote.get());
-
-            // Atomically decrement the vote count on the Review entity
-            if (review.getHelpfulVotes() > 0) {
-                review.setHelpfulVotes(review.getHelpfulVotes() - 1);
-                reviewRepository.save(review);
-            }
+            up = false;
         } else {
             throw new IllegalArgumentException("Invalid vote type provided: " + type);
         }
+
+        // 2. ACTION: Queue the vote for the next batch and wait for its outcome. The batch resolves it
+        // against the (user_id, review_id) unique constraint, so each user still votes at most once.
+        // The helpful count is updated by the write-behind counter once the batch has committed.
+        VoteResult result = voteIngestionService.submit(new VoteCommand(userId, reviewId, up));
+
+        if (result == VoteResult.REVIEW_NOT_FOUND) {
+            throw new RuntimeException("Review not found for voting.");
+        }
+        if (result == VoteResult.DUPLICATE) {
+            throw new RuntimeException(up
+                    ? "You have already marked this review as helpful."
+                    : "You have not marked this review as helpful to un-vote.");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,442 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.HelpfulScore;
+import com.niket.productreviewsystem.model.IdGenerators;
+import com.niket.productreviewsystem.model.Role;
+import com.niket.productreviewsystem.repository.RoleRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic catalog for load tests, active with the "synthetic" profile (e.g. --spring.profiles.active=dev,synthetic;
+ * volumes in application-synthetic.properties). Runs once after DataLoader, before the application takes traffic,
+ * and is skipped when its first user already exists. The same seed always produces the same data.
+ * <p>
+ * Popularity follows a Zipf distribution: the product of rank k draws reviews, helpful votes and reports with
+ * weight 1 / k^exponent (ranks are shuffled over the products, so popularity does not follow the ids). As in the
+ * application, a user reviews a product once, votes on a review once and reports it once; a product never gets
+ * more reviews than there are users, the surplus goes to the next products drawn.
+ * <p>
+ * Rows are written in JDBC batches with explicit ids, one transaction per 'batch-size' reviews together with their
+ * votes and rating aggregates; helpful_votes and helpful_score are written final, and each report batch moves
+ * reviews.pending_reports in the same transaction. The id generators are re-aligned
+ * afterwards, and the search index is rebuilt once the rows are in (they bypass the after-commit indexing).
+ */
+@Component
+@Profile("synthetic")
+@DependsOn("dataLoader") // the roles exist
+public class SyntheticDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    public static final String USERNAME_PREFIX = "synth_user_";
+    public static final String PRODUCT_PREFIX = "Synthetic Product ";
+
+    private static final String USER_SQL = "INSERT INTO users (id, username, email, password) VALUES (?, ?, ?, ?)";
+    private static final String USER_ROLE_SQL = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String PRODUCT_SQL = "INSERT INTO products (id, name, description) VALUES (?, ?, ?)";
+    private static final String REVIEW_SQL = "INSERT INTO reviews (id, product_id, user_id, rating, comment, review_date, "
+            + "verified_purchase, helpful_votes, helpful_score) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String VOTE_SQL = "INSERT INTO review_votes (user_id, review_id) VALUES (?, ?)";
+    private static final String REPORT_SQL = "INSERT INTO review_reports (id, review_id, reporter_user_id, reason, "
+            + "detail_reason, report_date, is_processed) VALUES (?, ?, ?, ?, ?, ?, FALSE)";
+    private static final String PENDING_REPORTS_SQL = "UPDATE reviews SET pending_reports = pending_reports + ? WHERE id = ?";
+
+    // Share of 1 to 5 star ratings, in percent: mostly 5 stars with a second peak at 1 star
+    private static final int[] RATING_PERCENT = {12, 6, 9, 21, 52};
+
+    // The reasons offered by the report form on the product page
+    private static final String[] REPORT_REASONS = {"Profanity/Hate Speech", "Spam/Advertising", "Irrelevant Content", "Other"};
+
+    private static final String[][] OPENINGS = {
+            {"Stopped working after a week.", "Very disappointed with this one.", "Would not buy again."},
+            {"Not what I expected.", "Below average for the money.", "Had high hopes, but no."},
+            {"It does the job.", "Decent, nothing special.", "Mixed feelings about this."},
+            {"Pretty good overall.", "Happy with the purchase.", "Works well for daily use."},
+            {"Absolutely love it!", "Best purchase this year.", "Exceeded my expectations."}
+    };
+    private static final String[] FEATURES = {"battery life", "sound quality", "build quality", "setup", "price",
+            "packaging", "design", "customer support", "screen", "delivery"};
+    private static final String[] VERDICTS = {"is poor", "could be better", "is okay", "is good", "is excellent"};
+    private static final String[] CLOSINGS = {"", " Arrived on time.", " Bought it as a gift.", " Using it every day now.",
+            " Compared it with two other brands first.", " Would like more colour options."};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
+    @Autowired
+    private IdGeneratorMigration idGeneratorMigration;
+
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @Value("${synthetic.users:1000}")
+    private int users;
+
+    @Value("${synthetic.products:200}")
+    private int products;
+
+    @Value("${synthetic.reviews:50000}")
+    private int reviews;
+
+    @Value("${synthetic.votes:100000}")
+    private int votes;
+
+    @Value("${synthetic.reports:500}")
+    private int reports;
+
+    @Value("${synthetic.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${synthetic.seed:42}")
+    private long seed;
+
+    // Shared by every synthetic user, so load tests can log in as any of them
+    @Value("${synthetic.password:synthpass}")
+    private String password;
+
+    // Reviews are spread over this many days before now
+    @Value("${synthetic.history-days:730}")
+    private int historyDays;
+
+    @Value("${synthetic.batch-size:1000}")
+    private int batchSize;
+
+    @PostConstruct
+    public void generate() {
+        if (userRepository.findByUsername(USERNAME_PREFIX + 0).isPresent()) {
+            logger.info("Synthetic data already present, generation skipped.");
+            return;
+        }
+        checkVolumes();
+        long started = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        try {
+            // 1. Accounts and catalog
+            long firstUserId = insertUsers();
+            long firstProductId = insertProducts();
+
+            // 2. Plan who reviews, votes on and reports what, so every review is written with its final vote count
+            ZipfSampler popularity = new ZipfSampler(products, zipfExponent, random);
+            Plan plan = new Plan(popularity, random);
+
+            // 3. Reviews with their votes and rating aggregates, then reports
+            insertReviews(plan, firstUserId, firstProductId, random);
+            insertReports(plan, firstUserId, random);
+        } finally {
+            idGeneratorMigration.alignAll();
+        }
+        // 4. Index the new reviews; an index that was current before would otherwise skip its startup rebuild
+        reviewSearchService.rebuild();
+
+        logger.info("Synthetic data generated in {} ms: {} users, {} products, {} reviews, {} votes, {} reports (Zipf exponent {}, seed {}).",
+                System.currentTimeMillis() - started, users, products, reviews, votes, reports, zipfExponent, seed);
+    }
+
+    private void checkVolumes() {
+        if (users < 1 || products < 1 || reviews < 0 || votes < 0 || reports < 0 || zipfExponent < 0 || batchSize < 1) {
+            throw new RuntimeException("Synthetic data volumes must not be negative, with at least one user and one product.");
+        }
+        if (reviews > (long) users * products) {
+            throw new RuntimeException("synthetic.reviews cannot exceed one review per user and product ("
+                    + (long) users * products + ").");
+        }
+        if (votes > (long) reviews * (users - 1) || reports > (long) reviews * (users - 1)) {
+            throw new RuntimeException("synthetic.votes and synthetic.reports cannot exceed one per review and user other than its author.");
+        }
+    }
+
+    // Returns the id of the first user; user i has that id plus i
+    private long insertUsers() {
+        long firstId = idGeneratorMigration.nextFreeId(IdGenerators.USERS);
+        Long roleId = roleRepository.findByName(Role.RoleName.ROLE_USER).get().getId();
+        String passwordHash = passwordEncoder.encode(password);
+
+        List<Object[]> userRows = new ArrayList<>();
+        List<Object[]> roleRows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userRows.add(new Object[]{firstId + i, USERNAME_PREFIX + i, USERNAME_PREFIX + i + "@example.com", passwordHash});
+            roleRows.add(new Object[]{firstId + i, roleId});
+            if (userRows.size() == batchSize || i == users - 1) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(USER_SQL, userRows);
+                    jdbcTemplate.batchUpdate(USER_ROLE_SQL, roleRows);
+                });
+                userRows.clear();
+                roleRows.clear();
+            }
+        }
+        return firstId;
+    }
+
+    // Returns the id of the first product; product p has that id plus p
+    private long insertProducts() {
+        long firstId = idGeneratorMigration.nextFreeId(IdGenerators.PRODUCTS);
+        List<Object[]> rows = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            rows.add(new Object[]{firstId + p, PRODUCT_PREFIX + p, "Synthetic catalog item " + p + " for load testing."});
+            if (rows.size() == batchSize || p == products - 1) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(PRODUCT_SQL, rows));
+                rows.clear();
+            }
+        }
+        return firstId;
+    }
+
+    private void insertReviews(Plan plan, long firstUserId, long firstProductId, SplittableRandom random) {
+        long firstReviewId = idGeneratorMigration.nextFreeId(IdGenerators.REVIEWS);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> reviewRows = new ArrayList<>();
+        List<Object[]> voteRows = new ArrayList<>();
+        // product id -> reviews per star in the current chunk
+        Map<Long, long[]> ratings = new HashMap<>();
+
+        for (int p = 0; p < products; p++) {
+            long productId = firstProductId + p;
+            for (int r = plan.firstReview[p]; r < plan.firstReview[p + 1]; r++) {
+                int rating = rating(random);
+                LocalDateTime reviewDate = now.minusMinutes(plan.ageMinutes[r]);
+                int helpfulVotes = plan.voteCounts[r];
+                reviewRows.add(new Object[]{firstReviewId + r, productId, firstUserId + plan.authors[r], rating,
+                        comment(rating, random), Timestamp.valueOf(reviewDate), random.nextInt(10) < 7,
+                        helpfulVotes, HelpfulScore.of(helpfulVotes, reviewDate)});
+                ratings.computeIfAbsent(productId, id -> new long[5])[rating - 1]++;
+
+                for (int voter : distinctUsersExcept(plan.authors[r], helpfulVotes, random)) {
+                    voteRows.add(new Object[]{firstUserId + voter, firstReviewId + r});
+                }
+                if (reviewRows.size() == batchSize) {
+                    writeReviewChunk(reviewRows, voteRows, ratings);
+                }
+            }
+        }
+        writeReviewChunk(reviewRows, voteRows, ratings);
+        plan.firstReviewId = firstReviewId;
+    }
+
+    // Reviews, their votes and the matching aggregate deltas commit together
+    private void writeReviewChunk(List<Object[]> reviewRows, List<Object[]> voteRows, Map<Long, long[]> ratings) {
+        if (reviewRows.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(REVIEW_SQL, reviewRows);
+            jdbcTemplate.batchUpdate(VOTE_SQL, voteRows);
+            ratings.forEach((productId, counts) -> {
+                for (int star = 1; star <= 5; star++) {
+                    if (counts[star - 1] > 0) {
+                        ratingStatsService.recordReviewsAdded(productId, star, counts[star - 1]);
+                    }
+                }
+            });
+        });
+        reviewRows.clear();
+        voteRows.clear();
+        ratings.clear();
+    }
+
+    private void insertReports(Plan plan, long firstUserId, SplittableRandom random) {
+        long firstReportId = idGeneratorMigration.nextFreeId(IdGenerators.REVIEW_REPORTS);
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> reported = new HashSet<>();
+        List<Object[]> rows = new ArrayList<>();
+        // review id -> reports in the current batch
+        Map<Long, Integer> pending = new HashMap<>();
+
+        for (int i = 0; i < reports; i++) {
+            int review;
+            int reporter;
+            do {
+                review = plan.nextReview(random);
+                reporter = random.nextInt(users);
+            } while (reporter == plan.authors[review] || !reported.add((long) review * users + reporter));
+
+            String reason = REPORT_REASONS[random.nextInt(REPORT_REASONS.length)];
+            // Filed some time between the review and now
+            LocalDateTime reportDate = now.minusMinutes(random.nextInt(plan.ageMinutes[review] + 1));
+            rows.add(new Object[]{firstReportId + i, plan.firstReviewId + review, firstUserId + reporter, reason,
+                    reason.equals("Other") ? "Synthetic report " + i : null, Timestamp.valueOf(reportDate)});
+            pending.merge(plan.firstReviewId + review, 1, Integer::sum);
+            if (rows.size() == batchSize || i == reports - 1) {
+                List<Object[]> counts = new ArrayList<>();
+                pending.forEach((reviewId, count) -> counts.add(new Object[]{count, reviewId}));
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(REPORT_SQL, rows);
+                    jdbcTemplate.batchUpdate(PENDING_REPORTS_SQL, counts);
+                });
+                rows.clear();
+                pending.clear();
+            }
+        }
+    }
+
+    private static int rating(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        for (int star = 1; star <= 5; star++) {
+            roll -= RATING_PERCENT[star - 1];
+            if (roll < 0) {
+                return star;
+            }
+        }
+        return 5;
+    }
+
+    private static String comment(int rating, SplittableRandom random) {
+        String[] openings = OPENINGS[rating - 1];
+        return openings[random.nextInt(openings.length)]
+                + " The " + FEATURES[random.nextInt(FEATURES.length)] + " " + VERDICTS[rating - 1] + "."
+                + CLOSINGS[random.nextInt(CLOSINGS.length)];
+    }
+
+    // 'count' distinct user indexes, none of them 'excluded' (Floyd's algorithm over the other users)
+    private Set<Integer> distinctUsersExcept(int excluded, int count, SplittableRandom random) {
+        Set<Integer> chosen = new HashSet<>();
+        int candidates = excluded < 0 ? users : users - 1;
+        for (int j = candidates - count; j < candidates; j++) {
+            int pick = random.nextInt(j + 1);
+            chosen.add(chosen.contains(pick) ? j : pick);
+        }
+        if (excluded < 0) {
+            return chosen;
+        }
+        // Candidate indexes skip the excluded user
+        Set<Integer> shifted = new HashSet<>();
+        for (int index : chosen) {
+            shifted.add(index >= excluded ? index + 1 : index);
+        }
+        return shifted;
+    }
+
+    /**
+     * Review counts, authors, ages and vote counts, indexed by review number. The reviews of product p are
+     * numbers firstReview[p] to firstReview[p + 1] - 1, so a review's id is firstReviewId plus its number.
+     */
+    private final class Plan {
+
+        private final ZipfSampler popularity;
+        private final int[] firstReview = new int[products + 1];
+        private final int[] authors = new int[reviews];
+        private final int[] ageMinutes = new int[reviews];
+        private final int[] voteCounts = new int[reviews];
+        private long firstReviewId;
+
+        private Plan(ZipfSampler popularity, SplittableRandom random) {
+            this.popularity = popularity;
+
+            // 1. Reviews per product, at most one per user
+            int[] reviewCounts = new int[products];
+            for (int i = 0; i < reviews; i++) {
+                int product;
+                do {
+                    product = popularity.next(random);
+                } while (reviewCounts[product] == users);
+                reviewCounts[product]++;
+            }
+
+            // 2. Distinct authors per product, and review ages
+            int historyMinutes = Math.max(1, historyDays * 24 * 60);
+            for (int p = 0; p < products; p++) {
+                firstReview[p + 1] = firstReview[p] + reviewCounts[p];
+                int r = firstReview[p];
+                for (int author : distinctUsersExcept(-1, reviewCounts[p], random)) {
+                    authors[r] = author;
+                    ageMinutes[r] = random.nextInt(historyMinutes);
+                    r++;
+                }
+            }
+
+            // 3. Helpful votes: reviews of popular products get more, at most one per user other than the author
+            for (int i = 0; i < votes; i++) {
+                int review;
+                do {
+                    review = nextReview(random);
+                } while (voteCounts[review] == users - 1);
+                voteCounts[review]++;
+            }
+        }
+
+        // A review of a product drawn by popularity
+        private int nextReview(SplittableRandom random) {
+            while (true) {
+                int product = popularity.next(random);
+                int count = firstReview[product + 1] - firstReview[product];
+                if (count > 0) {
+                    return firstReview[product] + random.nextInt(count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws product indexes with probability proportional to 1 / rank^exponent, ranks shuffled over the indexes.
+     */
+    private static final class ZipfSampler {
+
+        private final double[] cumulativeWeights;
+        private final int[] productAtRank;
+
+        private ZipfSampler(int size, double exponent, SplittableRandom random) {
+            cumulativeWeights = new double[size];
+            double total = 0;
+            for (int rank = 0; rank < size; rank++) {
+                total += 1 / Math.pow(rank + 1, exponent);
+                cumulativeWeights[rank] = total;
+            }
+            productAtRank = new int[size];
+            for (int i = 0; i < size; i++) {
+                productAtRank[i] = i;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = productAtRank[i];
+                productAtRank[i] = productAtRank[j];
+                productAtRank[j] = swap;
+            }
+        }
+
+        private int next(SplittableRandom random) {
+            double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            int found = Arrays.binarySearch(cumulativeWeights, target);
+            // First rank whose cumulative weight is above the target
+            int rank = found >= 0 ? found + 1 : -found - 1;
+            return productAtRank[Math.min(rank, productAtRank.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.validator.TextScreener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Application-wide TextScreener: link markers plus the words listed in 'moderation.blocklist'.
+ * The automaton is compiled once at startup and shared by every validation call.
+ */
+@Service
+public class TextScreeningService {
+
+    private final TextScreener screener;
+
+    public TextScreeningService(@Value("${moderation.blocklist:}") String blocklist) {
+        List<String> words = Arrays.stream(blocklist.split(","))
+                .map(String::trim)
+                .filter(word -> !word.isEmpty())
+                .toList();
+        this.screener = TextScreener.builder()
+                .addUrlMarkers()
+                .addBlocklist(words)
+                .build();
+    }
+
+    public TextScreener getScreener() {
+        return screener;
+    }
+
+    /**
+     * Returns the first link marker or blocklisted word in the text, or null if it is clean.
+     */
+    public TextScreener.Match screen(CharSequence text) {
+        return screener.find(text);
+    }
+}
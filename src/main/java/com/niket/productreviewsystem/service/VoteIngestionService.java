@@ -0,0 +1,313 @@
+package com.niket.productreviewsystem.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Batched write path for helpful votes (the review_votes rows).
+ * <p>
+ * Requests do not insert or delete their vote row themselves any more: ReviewService.addVote queues a
+ * VoteCommand and waits for its result. A single writer thread takes everything queued so far (up to
+ * votes.batch.max-size commands) and applies it in one transaction: one select of the reviews, one
+ * select of the existing votes, then multi-row INSERT IGNORE / DELETE statements. Batches grow on their
+ * own while the previous one commits, so an idle system still writes a lone vote without delay.
+ * <p>
+ * Every command is resolved against the votes that existed when its batch started plus the commands
+ * queued before it, which gives each caller an exact ACCEPTED / DUPLICATE answer. If the statements then
+ * change fewer rows than expected (another instance wrote the same pair in between), the batch is rolled
+ * back and replayed one command per statement, where each statement's row count is the answer.
+ */
+@Service
+public class VoteIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteIngestionService.class);
+
+    public enum VoteResult { ACCEPTED, DUPLICATE, REVIEW_NOT_FOUND }
+
+    /**
+     * A helpful vote ('up') or its removal by one user on one review.
+     */
+    public record VoteCommand(Long userId, Long reviewId, boolean up) {
+    }
+
+    private static final String BUSY_MESSAGE = "Your vote could not be recorded right now. Please try again.";
+
+    // Rows per multi-row INSERT / DELETE statement
+    private static final int ROWS_PER_STATEMENT = 100;
+
+    // The no-op form of ON DUPLICATE KEY: the (user_id, review_id) unique key drops the row, and only
+    // inserted rows are counted (ON DUPLICATE KEY UPDATE would also count "found" rows on Connector/J)
+    private static final String INSERT_SQL = "INSERT IGNORE INTO review_votes (user_id, review_id) VALUES ";
+    private static final String DELETE_SQL = "DELETE FROM review_votes WHERE ";
+
+    @Value("${votes.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${votes.batch.queue-capacity:20000}")
+    private int queueCapacity;
+
+    @Value("${votes.batch.result-timeout-ms:5000}")
+    private long resultTimeoutMillis;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private HelpfulVoteCounter helpfulVoteCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingVote> queue;
+    private DistributionSummary batchSizes;
+    private Thread writer;
+    private volatile boolean running;
+
+    private record PendingVote(VoteCommand command, CompletableFuture<VoteResult> result) {
+    }
+
+    private record VoteKey(long userId, long reviewId) {
+    }
+
+    // Thrown inside the batch transaction to roll it back when the row counts do not match
+    private static class StaleBatchException extends RuntimeException {
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("votes.batch.size")
+                .description("Vote commands written per transaction")
+                .register(meterRegistry);
+        Gauge.builder("votes.queue.size", queue, BlockingQueue::size)
+                .description("Vote commands waiting for the writer")
+                .register(meterRegistry);
+        running = true;
+        writer = Thread.ofPlatform().name("vote-writer").daemon(true).start(this::writeLoop);
+    }
+
+    /**
+     * Queues a vote and blocks until its batch has committed. Throws a RuntimeException with a
+     * user-facing message if the queue is full or the result does not arrive in time; in the latter
+     * case the vote may still be written, and a retry then reports it as a duplicate.
+     */
+    public VoteResult submit(VoteCommand command) {
+        CompletableFuture<VoteResult> result = new CompletableFuture<>();
+        if (!running || !queue.offer(new PendingVote(command, result))) {
+            throw new RuntimeException(BUSY_MESSAGE);
+        }
+        try {
+            return result.get(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(BUSY_MESSAGE);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException(BUSY_MESSAGE);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Stop accepting votes, let the writer drain what is queued, then fail anything left over
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        PendingVote pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new IllegalStateException("Vote writer stopped"));
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingVote> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingVote first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Vote writer failed on a batch of {} votes.", batch.size(), e);
+                for (PendingVote pending : batch) {
+                    pending.result().completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingVote> batch) {
+        batchSizes.record(batch.size());
+        List<VoteCommand> commands = batch.stream().map(PendingVote::command).toList();
+
+        List<VoteResult> results = null;
+        try {
+            results = transactionTemplate.execute(status -> applyBatch(commands));
+        } catch (StaleBatchException e) {
+            logger.debug("Vote batch of {} raced with another writer, replaying it one vote at a time.", batch.size());
+        } catch (RuntimeException e) {
+            logger.warn("Vote batch of {} failed, replaying it one vote at a time.", batch.size(), e);
+        }
+
+        if (results != null) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+            return;
+        }
+        // One transaction per vote, so a failing vote only fails its own caller
+        for (PendingVote pending : batch) {
+            try {
+                pending.result().complete(transactionTemplate.execute(status -> applySingle(pending.command())));
+            } catch (RuntimeException e) {
+                logger.error("Failed to record vote {}.", pending.command(), e);
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    // Runs inside the batch transaction; returns one result per command, in order
+    private List<VoteResult> applyBatch(List<VoteCommand> commands) {
+        // 1. Reviews that exist
+        Set<Long> reviewIds = new LinkedHashSet<>();
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (VoteCommand command : commands) {
+            reviewIds.add(command.reviewId());
+            userIds.add(command.userId());
+        }
+        Set<Long> existingReviews = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM reviews WHERE id IN (" + placeholders(reviewIds.size()) + ")",
+                Long.class, reviewIds.toArray()));
+
+        // 2. Votes that already exist among the batch's users and reviews
+        Set<VoteKey> voted = new HashSet<>();
+        if (!existingReviews.isEmpty()) {
+            List<Object> args = new ArrayList<>(userIds);
+            args.addAll(existingReviews);
+            jdbcTemplate.query("SELECT user_id, review_id FROM review_votes WHERE user_id IN ("
+                            + placeholders(userIds.size()) + ") AND review_id IN (" + placeholders(existingReviews.size()) + ")",
+                    rs -> {
+                        voted.add(new VoteKey(rs.getLong(1), rs.getLong(2)));
+                    }, args.toArray());
+        }
+
+        // 3. Resolve the commands in arrival order, remembering where each touched pair started
+        List<VoteResult> results = new ArrayList<>(commands.size());
+        Map<VoteKey, Boolean> initialState = new LinkedHashMap<>();
+        for (VoteCommand command : commands) {
+            if (!existingReviews.contains(command.reviewId())) {
+                results.add(VoteResult.REVIEW_NOT_FOUND);
+                continue;
+            }
+            VoteKey key = new VoteKey(command.userId(), command.reviewId());
+            initialState.putIfAbsent(key, voted.contains(key));
+            boolean changed = command.up() ? voted.add(key) : voted.remove(key);
+            results.add(changed ? VoteResult.ACCEPTED : VoteResult.DUPLICATE);
+        }
+
+        // 4. Write only the net changes, in key order so concurrent writers lock rows in the same order
+        List<VoteKey> inserts = new ArrayList<>();
+        List<VoteKey> deletes = new ArrayList<>();
+        for (Map.Entry<VoteKey, Boolean> entry : initialState.entrySet()) {
+            boolean votedNow = voted.contains(entry.getKey());
+            if (votedNow && !entry.getValue()) {
+                inserts.add(entry.getKey());
+            } else if (!votedNow && entry.getValue()) {
+                deletes.add(entry.getKey());
+            }
+        }
+        Comparator<VoteKey> keyOrder = Comparator.comparingLong(VoteKey::reviewId).thenComparingLong(VoteKey::userId);
+        inserts.sort(keyOrder);
+        deletes.sort(keyOrder);
+
+        if (writeRows(inserts, true) != inserts.size() || writeRows(deletes, false) != deletes.size()) {
+            throw new StaleBatchException();
+        }
+
+        // 5. Counter deltas per review, applied once the batch has committed
+        Map<Long, Long> deltas = new HashMap<>();
+        inserts.forEach(key -> deltas.merge(key.reviewId(), 1L, Long::sum));
+        deletes.forEach(key -> deltas.merge(key.reviewId(), -1L, Long::sum));
+        deltas.forEach((reviewId, delta) -> {
+            if (delta != 0) {
+                helpfulVoteCounter.addAfterCommit(reviewId, delta);
+            }
+        });
+        return results;
+    }
+
+    // Multi-row INSERT IGNORE or DELETE of the given pairs; returns the number of rows changed
+    private int writeRows(List<VoteKey> keys, boolean insert) {
+        int changed = 0;
+        for (int from = 0; from < keys.size(); from += ROWS_PER_STATEMENT) {
+            List<VoteKey> chunk = keys.subList(from, Math.min(keys.size(), from + ROWS_PER_STATEMENT));
+            String rows = insert
+                    ? String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"))
+                    : String.join(" OR ", Collections.nCopies(chunk.size(), "(user_id = ? AND review_id = ?)"));
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[2 * i] = chunk.get(i).userId();
+                args[2 * i + 1] = chunk.get(i).reviewId();
+            }
+            changed += jdbcTemplate.update((insert ? INSERT_SQL : DELETE_SQL) + rows, args);
+        }
+        return changed;
+    }
+
+    // Fallback path: one command, answered by the row count of its own statement
+    private VoteResult applySingle(VoteCommand command) {
+        Integer reviews = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reviews WHERE id = ?", Integer.class, command.reviewId());
+        if (reviews == null || reviews == 0) {
+            return VoteResult.REVIEW_NOT_FOUND;
+        }
+        int changed = command.up()
+                ? jdbcTemplate.update(INSERT_SQL + "(?, ?)", command.userId(), command.reviewId())
+                : jdbcTemplate.update(DELETE_SQL + "user_id = ? AND review_id = ?", command.userId(), command.reviewId());
+        if (changed == 0) {
+            return VoteResult.DUPLICATE;
+        }
+        helpfulVoteCounter.addAfterCommit(command.reviewId(), command.up() ? 1 : -1);
+        return VoteResult.ACCEPTED;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
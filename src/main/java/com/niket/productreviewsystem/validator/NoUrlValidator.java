@@ -1,15 +1,24 @@
 package com.niket.productreviewsystem.validator;
 
+import com.niket.productreviewsystem.service.TextScreeningService;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
 
 public class NoUrlValidator implements ConstraintValidator<NoUrl, String> {
 
-    // Regex to detect common URL patterns (http://, https://, www., or .com, .org, etc.)
-    private static final String URL_REGEX = "((http|https)://|www\\.|\\.[a-z]{2,3}/?)";
-    private static final Pattern URL_PATTERN = Pattern.compile(URL_REGEX, Pattern.CASE_INSENSITIVE);
+    private final TextScreener screener;
+
+    // Outside Spring (e.g. benchmarks, plain Bean Validation): link markers only
+    public NoUrlValidator() {
+        this.screener = TextScreener.urlMarkers();
+    }
+
+    // Created by Spring's validator factory: link markers plus the configured blocklist
+    @Autowired
+    public NoUrlValidator(TextScreeningService textScreeningService) {
+        this.screener = textScreeningService.getScreener();
+    }
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
@@ -17,7 +26,16 @@ public class NoUrlValidator implements ConstraintValidator<NoUrl, String> {
             return true; // Null or empty comments are allowed
         }
 
-        Matcher matcher = URL_PATTERN.matcher(value);
-        return !matcher.find(); // Returns true if NO match (no URL) is found
+        // Single pass over the comment, no regex backtracking
+        TextScreener.Match match = screener.find(value);
+        if (match == null) {
+            return true;
+        }
+        if (match.category() == TextScreener.Category.BLOCKLIST && context != null) {
+            context.disableDefaultConstraintViolation();
+            context.buildConstraintViolationWithTemplate("Review comment contains a word that is not allowed.")
+                    .addConstraintViolation();
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
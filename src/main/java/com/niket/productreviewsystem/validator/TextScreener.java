@@ -0,0 +1,278 @@
+package com.niket.productreviewsystem.validator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Case-insensitive multi-term matcher for user text (review comments, report details), built as an
+ * Aho–Corasick automaton. All terms are found in a single left-to-right pass over the text, in time
+ * linear in its length whatever the terms are: there is no backtracking and no per-call Pattern.
+ * <p>
+ * The automaton is compiled once into flat int tables (a full transition table over the characters
+ * that occur in the terms), so a scan allocates nothing unless it finds a match. Instances are
+ * immutable and safe to share between threads.
+ * <p>
+ * A term can require a word boundary on either side, which keeps ".co" from matching "cool" and a
+ * blocklisted word from matching inside a longer, harmless one.
+ */
+public final class TextScreener {
+
+    public enum Category { URL, BLOCKLIST }
+
+    /**
+     * A term found in the text; 'start' and 'end' delimit it (end exclusive).
+     */
+    public record Match(String term, Category category, int start, int end) {
+    }
+
+    // Link markers shared by every screener: schemes, 'www.' and common top-level domains
+    private static final List<String> URL_PREFIXES = List.of("http://", "https://", "www.");
+    private static final List<String> URL_DOMAINS = List.of(
+            ".com", ".net", ".org", ".co", ".io", ".info", ".biz", ".xyz", ".ly", ".me", ".us", ".uk",
+            ".in", ".de", ".ru", ".cn", ".app", ".shop", ".store", ".online", ".site", ".link", ".top");
+
+    private static final TextScreener URL_MARKERS = builder().addUrlMarkers().build();
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    // Column of each ASCII character in the transition table; column 0 stands for "no term uses it"
+    private final int[] asciiColumns;
+    // Non-ASCII term characters, sorted, with their columns
+    private final char[] otherChars;
+    private final int[] otherColumns;
+    private final int columns;
+
+    // next[state * columns + column]: complete transition function, failure links already folded in
+    private final int[] next;
+    // Term ending exactly at a state, and the next state down the failure chain that ends a term
+    private final int[] output;
+    private final int[] outputLink;
+
+    private final String[] terms;
+    private final Category[] categories;
+    private final boolean[] boundaryBefore;
+    private final boolean[] boundaryAfter;
+
+    private TextScreener(Builder builder) {
+        int termCount = builder.terms.size();
+        terms = builder.terms.toArray(new String[0]);
+        categories = builder.categories.toArray(new Category[0]);
+        boundaryBefore = new boolean[termCount];
+        boundaryAfter = new boolean[termCount];
+        for (int t = 0; t < termCount; t++) {
+            boundaryBefore[t] = builder.boundaryBefore.get(t);
+            boundaryAfter[t] = builder.boundaryAfter.get(t);
+        }
+
+        // 1. Alphabet: one column per distinct term character
+        TreeSet<Character> alphabet = new TreeSet<>();
+        for (String term : terms) {
+            for (int i = 0; i < term.length(); i++) {
+                alphabet.add(term.charAt(i));
+            }
+        }
+        asciiColumns = new int[128];
+        List<Character> nonAscii = new ArrayList<>();
+        int column = 1;
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiColumns[c] = column++;
+            } else {
+                nonAscii.add(c);
+            }
+        }
+        otherChars = new char[nonAscii.size()];
+        otherColumns = new int[nonAscii.size()];
+        for (int i = 0; i < nonAscii.size(); i++) {
+            otherChars[i] = nonAscii.get(i);
+            otherColumns[i] = column++;
+        }
+        columns = column;
+
+        // 2. Trie of the terms
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        trie.add(newRow());
+        ends.add(NONE);
+        for (int t = 0; t < termCount; t++) {
+            int state = ROOT;
+            for (int i = 0; i < terms[t].length(); i++) {
+                int c = columnOf(terms[t].charAt(i));
+                if (trie.get(state)[c] == NONE) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newRow());
+                    ends.add(NONE);
+                }
+                state = trie.get(state)[c];
+            }
+            ends.set(state, t);
+        }
+
+        // 3. Failure links, breadth first, folded into a complete transition table
+        int states = trie.size();
+        next = new int[states * columns];
+        output = new int[states];
+        outputLink = new int[states];
+        int[] fail = new int[states];
+        for (int s = 0; s < states; s++) {
+            output[s] = ends.get(s);
+        }
+        outputLink[ROOT] = NONE;
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < columns; c++) {
+            int child = trie.get(ROOT)[c];
+            if (child == NONE || c == 0) {
+                next[c] = ROOT;
+            } else {
+                next[c] = child;
+                fail[child] = ROOT;
+                outputLink[child] = NONE;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int c = 0; c < columns; c++) {
+                int child = trie.get(state)[c];
+                int fallback = next[fail[state] * columns + c];
+                if (child == NONE) {
+                    next[state * columns + c] = fallback;
+                } else {
+                    next[state * columns + c] = child;
+                    fail[child] = fallback;
+                    outputLink[child] = output[fallback] != NONE ? fallback : outputLink[fallback];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Screener for link markers only (no blocklist).
+     */
+    public static TextScreener urlMarkers() {
+        return URL_MARKERS;
+    }
+
+    /**
+     * Returns the first term found in the text (the one that ends first), or null if there is none.
+     */
+    public Match find(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = next[state * columns + columnOf(Character.toLowerCase(text.charAt(i)))];
+            for (int s = output[state] != NONE ? state : outputLink[state]; s != NONE; s = outputLink[s]) {
+                int term = output[s];
+                int start = i + 1 - terms[term].length();
+                if (accepts(text, term, start, i + 1)) {
+                    return new Match(terms[term], categories[term], start, i + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    public boolean containsAny(CharSequence text) {
+        return find(text) != null;
+    }
+
+    private boolean accepts(CharSequence text, int term, int start, int end) {
+        if (boundaryBefore[term] && start > 0 && Character.isLetterOrDigit(text.charAt(start - 1))) {
+            return false;
+        }
+        return !boundaryAfter[term] || end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+    }
+
+    private int columnOf(char c) {
+        if (c < 128) {
+            return asciiColumns[c];
+        }
+        int i = Arrays.binarySearch(otherChars, c);
+        return i >= 0 ? otherColumns[i] : 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[columns];
+        Arrays.fill(row, NONE);
+        return row;
+    }
+
+    public static final class Builder {
+
+        private final Set<String> terms = new LinkedHashSet<>();
+        private final List<Category> categories = new ArrayList<>();
+        private final List<Boolean> boundaryBefore = new ArrayList<>();
+        private final List<Boolean> boundaryAfter = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a term. Matching ignores case; the boundary flags require a non-letter, non-digit
+         * character (or the edge of the text) right before / right after the term.
+         * Blank terms and terms already added are ignored.
+         */
+        public Builder add(String term, Category category, boolean wordBoundaryBefore, boolean wordBoundaryAfter) {
+            String normalized = normalize(term);
+            if (normalized.isEmpty() || !terms.add(normalized)) {
+                return this;
+            }
+            categories.add(category);
+            boundaryBefore.add(wordBoundaryBefore);
+            boundaryAfter.add(wordBoundaryAfter);
+            return this;
+        }
+
+        public Builder addUrlMarkers() {
+            for (String prefix : URL_PREFIXES) {
+                // "www." must start a word, so "awww." in ordinary text is not a link
+                add(prefix, Category.URL, prefix.startsWith("www"), false);
+            }
+            for (String domain : URL_DOMAINS) {
+                add(domain, Category.URL, false, true);
+            }
+            return this;
+        }
+
+        /**
+         * Adds whole-word blocklist terms.
+         */
+        public Builder addBlocklist(Iterable<String> words) {
+            for (String word : words) {
+                add(word, Category.BLOCKLIST, true, true);
+            }
+            return this;
+        }
+
+        public TextScreener build() {
+            return new TextScreener(this);
+        }
+
+        // Lower-cases char by char, exactly as the scan does, so terms and text fold the same way
+        private static String normalize(String term) {
+            if (term == null) {
+                return "";
+            }
+            String trimmed = term.trim();
+            char[] chars = new char[trimmed.length()];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = Character.toLowerCase(trimmed.charAt(i));
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.niket.productreviewsystem.controller;
+
+import com.niket.productreviewsystem.ProductReviewSystemApplication;
+import com.niket.productreviewsystem.config.ConnectionLimitingDataSource;
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the two request threading modes: the public product list is requested by CLIENTS
+ * concurrent clients against a real Tomcat, once with platform threads (spring.threads.virtual.enabled=false)
+ * and once with virtual threads, and the latency percentiles of both runs are printed.
+ * <p>
+ * H2 answers in microseconds, so the database and I/O costs of production are simulated: every JDBC
+ * statement waits JDBC_ROUND_TRIP_MS and every request makes one BLOCKING_IO_MS blocking call outside
+ * the database (standing in for file copies and other blocking I/O). Tomcat is limited to
+ * TOMCAT_THREADS platform threads and Hikari to POOL_SIZE connections in both runs. Neither mode may
+ * fail a request; in virtual mode the connection guard must have been in front of the pool.
+ * <p>
+ * Tagged "load": excluded from the default test run, run with mvn -Pload test.
+ */
+@Tag("load")
+class RequestThreadingLoadTest {
+
+    private static final int CLIENTS = 300;
+    private static final int REQUESTS = 2000;
+    private static final int WARM_UP_REQUESTS = 200;
+
+    private static final int TOMCAT_THREADS = 50;
+    private static final int POOL_SIZE = 10;
+    private static final long JDBC_ROUND_TRIP_MS = 1;
+    private static final long BLOCKING_IO_MS = 20;
+
+    @Test
+    void virtualThreadsKeepTailLatencyDownWithoutFailedRequests() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("[threading load test] GET /products, %d clients, %d requests, %d Tomcat threads, %d connections%n",
+                CLIENTS, REQUESTS, TOMCAT_THREADS, POOL_SIZE);
+        platform.print("platform threads");
+        virtual.print("virtual threads");
+
+        assertThat(platform.failed).as("failed requests, platform threads").isZero();
+        assertThat(virtual.failed).as("failed requests, virtual threads").isZero();
+        assertThat(virtual.guarded).as("connection guard active in virtual mode").isTrue();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                ProductReviewSystemApplication.class, SimulatedLatency.class)
+                // Command-line arguments, so they win over the test application.properties
+                .run(
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.datasource.url=jdbc:h2:mem:threading_" + mode + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--search.rebuild-on-startup=false",
+                        "--logging.level.root=WARN")) {
+
+            seedProducts(context);
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/products");
+
+            drive(uri, WARM_UP_REQUESTS);
+            Result result = drive(uri, REQUESTS);
+            result.guarded = context.getBean(DataSource.class) instanceof ConnectionLimitingDataSource;
+            return result;
+        }
+    }
+
+    // Sends 'requests' GETs from CLIENTS concurrent clients and records every latency
+    private Result drive(URI uri, int requests) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(java.time.Duration.ofSeconds(60)).GET().build();
+        long[] latencies = new long[requests];
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CLIENTS);
+
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                inFlight.acquire();
+                results.add(clients.submit(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        return new Result(latencies, elapsedMillis, failed.get());
+    }
+
+    // A page of products with reviews, so the list renders real rating summaries
+    private void seedProducts(ConfigurableApplicationContext context) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ReviewRepository reviewRepository = context.getBean(ReviewRepository.class);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setUsername("tl_user_" + i);
+            user.setEmail("tl_user_" + i + "@example.com");
+            user.setPassword("password");
+            users.add(userRepository.save(user));
+        }
+        for (int p = 0; p < 10; p++) {
+            Product product = new Product();
+            product.setName("Threading Load Test Product " + p);
+            product = productRepository.save(product);
+            for (int i = 0; i < users.size(); i++) {
+                Review review = new Review();
+                review.setProduct(product);
+                review.setUser(users.get(i));
+                review.setRating(1 + (p + i) % 5);
+                review.setComment("Load test review " + i);
+                reviewRepository.save(review);
+            }
+        }
+    }
+
+    private static final class Result {
+
+        private final long[] sortedMillis;
+        private final long elapsedMillis;
+        private final int failed;
+        private boolean guarded;
+
+        private Result(long[] latencyNanos, long elapsedMillis, int failed) {
+            this.sortedMillis = Arrays.stream(latencyNanos).map(TimeUnit.NANOSECONDS::toMillis).sorted().toArray();
+            this.elapsedMillis = elapsedMillis;
+            this.failed = failed;
+        }
+
+        private long percentile(double p) {
+            return sortedMillis[(int) Math.min(sortedMillis.length - 1, Math.ceil(p * sortedMillis.length) - 1)];
+        }
+
+        private void print(String label) {
+            System.out.printf("  %-17s: %6d ms, %8.1f req/s, p50 %4d ms, p99 %5d ms, max %5d ms, %d failed%n",
+                    label, elapsedMillis, sortedMillis.length * 1000.0 / Math.max(1, elapsedMillis),
+                    percentile(0.50), percentile(0.99), sortedMillis[sortedMillis.length - 1], failed);
+        }
+    }
+
+    /**
+     * Production-like latency on top of H2: a round trip per JDBC statement and one blocking call per request.
+     */
+    @Configuration
+    static class SimulatedLatency {
+
+        // PriorityOrdered, so the slow DataSource sits directly on the pool, inside the connection guard
+        @Bean
+        static BeanPostProcessor slowJdbcPostProcessor() {
+            return new SlowJdbcPostProcessor();
+        }
+
+        @Bean
+        FilterRegistrationBean<Filter> blockingIoFilter() {
+            Filter filter = (request, response, chain) -> {
+                try {
+                    Thread.sleep(BLOCKING_IO_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            };
+            return new FilterRegistrationBean<>(filter);
+        }
+    }
+
+    static class SlowJdbcPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        @Override
+        public int getOrder() {
+            return HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                return new SlowJdbcDataSource(dataSource);
+            }
+            return bean;
+        }
+    }
+
+    static class SlowJdbcDataSource extends DelegatingDataSource implements AutoCloseable {
+
+        SlowJdbcDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return delaying(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (getTargetDataSource() instanceof AutoCloseable target) {
+                target.close();
+            }
+        }
+
+        // Statements created by the connection are wrapped too; their execute* calls wait one round trip
+        private static <T> T delaying(Object target, Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                }
+                if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                if (method.getName().startsWith("execute")) {
+                    Thread.sleep(JDBC_ROUND_TRIP_MS);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (type == Connection.class && result != null && method.getName().matches("prepareStatement|prepareCall|createStatement")) {
+                    return delaying(result, method.getReturnType());
+                }
+                return result;
+            }));
+        }
+    }
+}
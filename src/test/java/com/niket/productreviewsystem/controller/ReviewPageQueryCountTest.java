@@ -0,0 +1,139 @@
+package com.niket.productreviewsystem.controller;
+
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards against N+1 lazy loading on the review pages: the number of SQL statements
+ * needed to render a page must not depend on how many reviews (and authors) it shows.
+ * Deliberately not @Transactional, so every lazy load would really hit the database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReviewPageQueryCountTest {
+
+    private static final int REVIEW_COUNT = 20;
+
+    // product, rating aggregate, review page, count query (offset mode only)
+    private static final long MAX_PRODUCT_PAGE_STATEMENTS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private Product product;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void seedReviews() {
+        product = new Product();
+        product.setName("Query Count Test Product");
+        product.setDescription("Seeded by ReviewPageQueryCountTest");
+        product = productRepository.save(product);
+
+        for (int i = 0; i < REVIEW_COUNT; i++) {
+            User user = new User();
+            user.setUsername("qc_user_" + i);
+            user.setEmail("qc_user_" + i + "@example.com");
+            user.setPassword("password");
+            users.add(userRepository.save(user));
+
+            Review review = new Review();
+            review.setProduct(product);
+            review.setUser(users.get(i));
+            review.setRating(1 + i % 5);
+            review.setComment("Review number " + i);
+            review.setReviewDate(LocalDateTime.now().minusHours(i));
+            review.setHelpfulVotes(i % 3);
+            reviewRepository.save(review);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reviewRepository.deleteAll(reviewRepository.findAll().stream()
+                .filter(r -> r.getProduct().getId().equals(product.getId()))
+                .toList());
+        userRepository.deleteAll(users);
+        productRepository.delete(product);
+        users.clear();
+    }
+
+    @Test
+    @WithMockUser(username = "qc_viewer")
+    void productPageStatementCountIsIndependentOfReviewCount() throws Exception {
+        for (String sort : List.of("newest", "helpful", "highest", "lowest")) {
+            long statements = countStatements(() -> mockMvc
+                    .perform(get("/products/{id}", product.getId()).param("sort", sort).param("size", String.valueOf(REVIEW_COUNT)))
+                    .andExpect(status().isOk()));
+            assertThat(statements)
+                    .as("SQL statements to render product page sorted by '%s' (offset mode)", sort)
+                    .isLessThanOrEqualTo(MAX_PRODUCT_PAGE_STATEMENTS);
+
+            long keysetStatements = countStatements(() -> mockMvc
+                    .perform(get("/products/{id}", product.getId()).param("sort", sort).param("cursor", "").param("size", String.valueOf(REVIEW_COUNT)))
+                    .andExpect(status().isOk()));
+            assertThat(keysetStatements)
+                    .as("SQL statements to render product page sorted by '%s' (keyset mode)", sort)
+                    .isLessThanOrEqualTo(MAX_PRODUCT_PAGE_STATEMENTS - 1);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "qc_admin", roles = "ADMIN")
+    void adminDashboardStatementCountIsIndependentOfReviewCount() throws Exception {
+        long statements = countStatements(() -> mockMvc
+                .perform(get("/admin/reviews"))
+                .andExpect(status().isOk()));
+        // product filter list, review page, count query
+        assertThat(statements)
+                .as("SQL statements to render the moderation dashboard")
+                .isLessThanOrEqualTo(3);
+    }
+
+    private long countStatements(ThrowingRunnable request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        request.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
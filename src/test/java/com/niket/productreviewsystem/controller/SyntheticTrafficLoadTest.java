@@ -0,0 +1,450 @@
+package com.niket.productreviewsystem.controller;
+
+import com.niket.productreviewsystem.ProductReviewSystemApplication;
+import com.niket.productreviewsystem.service.SyntheticDataGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repeatable HTTP load test over the synthetic catalog (SyntheticDataGenerator, "synthetic" profile). SESSIONS
+ * synthetic users log in, then CLIENTS concurrent clients send REQUESTS requests against a real Tomcat: the product
+ * list, product pages in every sort (offset pages and keyset slices), helpful votes and un-votes, review submissions
+ * and reports. Throughput and latency percentiles are printed per operation.
+ * <p>
+ * The request sequence is drawn from SEED before the run, with products picked in proportion to their review count,
+ * so every run sends the same requests. Writes only target pairs the session has not written yet (un-votes only its
+ * existing votes), so each one must change exactly one row.
+ * <p>
+ * Tagged "load": excluded from the default test run. Run it, with volumes raised from the command line if needed, as
+ * mvn -Pload test -Dtest=SyntheticTrafficLoadTest -Dsynthetic.users=5000 -Dsynthetic.products=500 -Dsynthetic.reviews=200000 -Dloadtest.requests=20000
+ */
+@Tag("load")
+class SyntheticTrafficLoadTest {
+
+    private static final int USERS = Integer.getInteger("synthetic.users", 300);
+    private static final int PRODUCTS = Integer.getInteger("synthetic.products", 60);
+    private static final int REVIEWS = Integer.getInteger("synthetic.reviews", 6000);
+    private static final int VOTES = Integer.getInteger("synthetic.votes", 12000);
+    private static final int REPORTS = Integer.getInteger("synthetic.reports", 300);
+
+    private static final int SESSIONS = Integer.getInteger("loadtest.sessions", 20);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 20);
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2000);
+    private static final int WARM_UP_REQUESTS = Integer.getInteger("loadtest.warm-up-requests", 200);
+    private static final long SEED = Long.getLong("loadtest.seed", 7);
+
+    private static final String PASSWORD = "synthpass";
+    private static final String[] SORTS = {"newest", "helpful", "highest", "lowest"};
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    enum Operation {
+        PRODUCT_LIST(10), PRODUCT_PAGE(35), KEYSET_PAGE(15), VOTE(15), UNVOTE(5), SUBMIT_REVIEW(10), REPORT(10);
+
+        // Share of the request mix, in percent
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private record Call(Operation operation, Session session, String path, String form) {
+    }
+
+    @Test
+    void syntheticCatalogServesTheMixedWorkloadWithoutFailures() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductReviewSystemApplication.class)
+                // Command-line arguments, so they win over the test application.properties
+                .run(
+                        "--spring.profiles.active=synthetic",
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:synthetic_load;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--synthetic.users=" + USERS,
+                        "--synthetic.products=" + PRODUCTS,
+                        "--synthetic.reviews=" + REVIEWS,
+                        "--synthetic.votes=" + VOTES,
+                        "--synthetic.reports=" + REPORTS,
+                        "--synthetic.password=" + PASSWORD,
+                        "--search.rebuild-on-startup=false",
+                        "--logging.level.root=WARN")) {
+
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertGeneratedCatalog(jdbc);
+
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < SESSIONS; i++) {
+                sessions.add(Session.login(baseUrl, SyntheticDataGenerator.USERNAME_PREFIX + i));
+            }
+
+            Workload workload = new Workload(jdbc, sessions);
+            drive(baseUrl, workload.reads(WARM_UP_REQUESTS));
+            long reviews = count(jdbc, "reviews");
+            long votes = count(jdbc, "review_votes");
+            long reports = count(jdbc, "review_reports");
+
+            List<Call> calls = workload.mixed(REQUESTS);
+            Result result = drive(baseUrl, calls);
+
+            System.out.printf("[synthetic load test] %d users, %d products, %d reviews, %d votes; %d sessions, %d clients, %d requests%n",
+                    USERS, PRODUCTS, REVIEWS, VOTES, SESSIONS, CLIENTS, REQUESTS);
+            result.print();
+
+            assertThat(result.failures()).as("failed requests").isZero();
+            assertThat(count(jdbc, "reviews")).as("reviews after the run")
+                    .isEqualTo(reviews + occurrences(calls, Operation.SUBMIT_REVIEW));
+            assertThat(count(jdbc, "review_votes")).as("votes after the run")
+                    .isEqualTo(votes + occurrences(calls, Operation.VOTE) - occurrences(calls, Operation.UNVOTE));
+            assertThat(count(jdbc, "review_reports")).as("reports after the run")
+                    .isEqualTo(reports + occurrences(calls, Operation.REPORT));
+        }
+    }
+
+    // Exact volumes, derived columns consistent with the rows, and a popularity skew
+    private void assertGeneratedCatalog(JdbcTemplate jdbc) {
+        String synthetic = " WHERE p.name LIKE '" + SyntheticDataGenerator.PRODUCT_PREFIX + "%'";
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM reviews r JOIN products p ON p.id = r.product_id" + synthetic, Long.class))
+                .isEqualTo(REVIEWS);
+        assertThat(count(jdbc, "review_votes")).isEqualTo(VOTES);
+        assertThat(count(jdbc, "review_reports")).isEqualTo(REPORTS);
+        assertThat(jdbc.queryForObject("SELECT SUM(helpful_votes) FROM reviews", Long.class)).isEqualTo(VOTES);
+        assertThat(jdbc.queryForObject("SELECT SUM(review_count) FROM product_rating_stats", Long.class)).isEqualTo(REVIEWS);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM (SELECT user_id, product_id FROM reviews "
+                + "GROUP BY user_id, product_id HAVING COUNT(*) > 1) d", Long.class)).as("duplicate reviews").isZero();
+
+        List<Long> reviewCounts = jdbc.queryForList("SELECT review_count FROM product_rating_stats ORDER BY review_count", Long.class);
+        long median = reviewCounts.get(reviewCounts.size() / 2);
+        assertThat(reviewCounts.get(reviewCounts.size() - 1)).as("reviews of the most popular product").isGreaterThan(2 * median);
+    }
+
+    // Sends the calls from CLIENTS concurrent clients and records every latency
+    private Result drive(String baseUrl, List<Call> calls) throws Exception {
+        long[] latencies = new long[calls.size()];
+        boolean[] failed = new boolean[calls.size()];
+        Semaphore inFlight = new Semaphore(CLIENTS);
+
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < calls.size(); i++) {
+                int index = i;
+                Call call = calls.get(i);
+                inFlight.acquire();
+                results.add(clients.submit(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        failed[index] = !call.session().send(baseUrl, call);
+                    } catch (Exception e) {
+                        failed[index] = true;
+                    } finally {
+                        latencies[index] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        return new Result(calls, latencies, failed, elapsedMillis);
+    }
+
+    private static long count(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static long occurrences(List<Call> calls, Operation operation) {
+        return calls.stream().filter(call -> call.operation() == operation).count();
+    }
+
+    /**
+     * A logged-in user: its own cookie jar and the CSRF token of its session.
+     */
+    static final class Session {
+
+        private final HttpClient client;
+        private String csrfToken;
+
+        private Session(HttpClient client) {
+            this.client = client;
+        }
+
+        static Session login(String baseUrl, String username) throws Exception {
+            Session session = new Session(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .cookieHandler(new CookieManager())
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build());
+            session.csrfToken = session.csrfFrom(baseUrl + "/login");
+            HttpResponse<Void> login = session.client.send(session.post(baseUrl + "/login",
+                    "username=" + encode(username) + "&password=" + encode(PASSWORD)), HttpResponse.BodyHandlers.discarding());
+            assertThat(login.headers().firstValue("Location").orElse("")).as("login of " + username).endsWith("/products");
+
+            // Login starts a new session with a new token
+            session.csrfToken = session.csrfFrom(baseUrl + "/products");
+            return session;
+        }
+
+        private String csrfFrom(String url) throws Exception {
+            HttpResponse<String> page = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = CSRF.matcher(page.body());
+            assertThat(matcher.find()).as("CSRF token on " + url).isTrue();
+            return matcher.group(1);
+        }
+
+        private HttpRequest post(String url, String form) {
+            return HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form + "&_csrf=" + encode(csrfToken)))
+                    .build();
+        }
+
+        // true if the page rendered, or the form was accepted and redirected back to the product (not to the login page)
+        boolean send(String baseUrl, Call call) throws Exception {
+            if (call.form() == null) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + call.path()))
+                        .timeout(Duration.ofSeconds(60)).GET().build();
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            }
+            HttpResponse<Void> response = client.send(post(baseUrl + call.path(), call.form()), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 302
+                    && response.headers().firstValue("Location").orElse("").contains("/products/");
+        }
+    }
+
+    /**
+     * Draws the request sequence from SEED. Products are picked in proportion to their review count, reviews
+     * uniformly within the product; write targets come from what each session has not written yet.
+     */
+    private static final class Workload {
+
+        private final List<Session> sessions;
+        private final SplittableRandom random = new SplittableRandom(SEED);
+        private final long[] productIds;
+        private final long[] cumulativeReviews;
+        private final Map<Long, long[]> reviewIdsByProduct = new HashMap<>();
+        private final Map<Long, Long> productOfReview = new HashMap<>();
+        // Per session: products reviewed, reviews voted on, reviews reported (existing rows included)
+        private final List<Set<Long>> reviewed = new ArrayList<>();
+        private final List<Set<Long>> voted = new ArrayList<>();
+        private final List<List<Long>> unvotable = new ArrayList<>();
+        private final List<Set<Long>> reported = new ArrayList<>();
+
+        private Workload(JdbcTemplate jdbc, List<Session> sessions) {
+            this.sessions = sessions;
+            Map<Long, Long> reviewCounts = new LinkedHashMap<>();
+            jdbc.query("SELECT product_id, review_count FROM product_rating_stats WHERE review_count > 0 ORDER BY product_id",
+                    row -> {
+                        reviewCounts.put(row.getLong(1), row.getLong(2));
+                    });
+            productIds = reviewCounts.keySet().stream().mapToLong(Long::longValue).toArray();
+            cumulativeReviews = new long[productIds.length];
+            long total = 0;
+            for (int i = 0; i < productIds.length; i++) {
+                total += reviewCounts.get(productIds[i]);
+                cumulativeReviews[i] = total;
+            }
+
+            Map<Long, List<Long>> reviewIds = new HashMap<>();
+            jdbc.query("SELECT id, product_id FROM reviews ORDER BY id", row -> {
+                reviewIds.computeIfAbsent(row.getLong(2), id -> new ArrayList<>()).add(row.getLong(1));
+                productOfReview.put(row.getLong(1), row.getLong(2));
+            });
+            reviewIds.forEach((productId, ids) -> reviewIdsByProduct.put(productId, ids.stream().mapToLong(Long::longValue).toArray()));
+
+            for (int i = 0; i < sessions.size(); i++) {
+                long userId = jdbc.queryForObject("SELECT id FROM users WHERE username = ?", Long.class,
+                        SyntheticDataGenerator.USERNAME_PREFIX + i);
+                reviewed.add(new HashSet<>(jdbc.queryForList("SELECT product_id FROM reviews WHERE user_id = ?", Long.class, userId)));
+                List<Long> votes = jdbc.queryForList("SELECT review_id FROM review_votes WHERE user_id = ? ORDER BY review_id", Long.class, userId);
+                voted.add(new HashSet<>(votes));
+                unvotable.add(new ArrayList<>(votes));
+                reported.add(new HashSet<>(jdbc.queryForList("SELECT review_id FROM review_reports WHERE reporter_user_id = ?", Long.class, userId)));
+            }
+        }
+
+        private List<Call> reads(int count) {
+            List<Call> calls = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                calls.add(read(random.nextInt(sessions.size()), random.nextBoolean() ? Operation.PRODUCT_PAGE : Operation.KEYSET_PAGE));
+            }
+            return calls;
+        }
+
+        private List<Call> mixed(int count) {
+            List<Call> calls = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int session = random.nextInt(sessions.size());
+                Operation operation = operation();
+                Call call = null;
+                for (int attempt = 0; call == null && attempt < 10; attempt++) {
+                    call = write(session, operation);
+                }
+                calls.add(call != null ? call : read(session, Operation.PRODUCT_PAGE));
+            }
+            return calls;
+        }
+
+        private Operation operation() {
+            int roll = random.nextInt(100);
+            for (Operation operation : Operation.values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return Operation.PRODUCT_PAGE;
+        }
+
+        private Call read(int session, Operation operation) {
+            Session client = sessions.get(session);
+            String sort = SORTS[random.nextInt(SORTS.length)];
+            return switch (operation) {
+                case PRODUCT_LIST -> new Call(operation, client, "/products", null);
+                case KEYSET_PAGE -> new Call(operation, client, "/products/" + product() + "?sort=" + sort + "&cursor=", null);
+                default -> new Call(Operation.PRODUCT_PAGE, client,
+                        "/products/" + product() + "?sort=" + sort + "&page=" + random.nextInt(3) + "&size=5", null);
+            };
+        }
+
+        // A write the session has not made yet to a drawn product, or null if it already did
+        private Call write(int session, Operation operation) {
+            Session client = sessions.get(session);
+            switch (operation) {
+                case VOTE -> {
+                    long reviewId = review(product());
+                    if (!voted.get(session).add(reviewId)) {
+                        return null;
+                    }
+                    return new Call(operation, client, "/products/reviews/" + reviewId + "/vote",
+                            "type=UP&productId=" + productOfReview.get(reviewId) + "&sort=helpful");
+                }
+                case UNVOTE -> {
+                    List<Long> existing = unvotable.get(session);
+                    if (existing.isEmpty()) {
+                        return null;
+                    }
+                    long reviewId = existing.remove(random.nextInt(existing.size()));
+                    return new Call(operation, client, "/products/reviews/" + reviewId + "/vote",
+                            "type=DOWN&productId=" + productOfReview.get(reviewId) + "&sort=helpful");
+                }
+                case SUBMIT_REVIEW -> {
+                    long productId = product();
+                    if (!reviewed.get(session).add(productId)) {
+                        return null;
+                    }
+                    return new Call(operation, client, "/products/" + productId + "/submit-review",
+                            "productId=" + productId + "&rating=" + (1 + random.nextInt(5))
+                                    + "&comment=" + encode("Load test review, the setup was quick and it works as described."));
+                }
+                case REPORT -> {
+                    long productId = product();
+                    long reviewId = review(productId);
+                    if (!reported.get(session).add(reviewId)) {
+                        return null;
+                    }
+                    return new Call(operation, client, "/products/reviews/report/" + reviewId,
+                            "reason=" + encode("Spam/Advertising") + "&productId=" + productId);
+                }
+                default -> {
+                    return read(session, operation);
+                }
+            }
+        }
+
+        private long product() {
+            long target = random.nextLong(cumulativeReviews[cumulativeReviews.length - 1]);
+            int found = Arrays.binarySearch(cumulativeReviews, target);
+            return productIds[found >= 0 ? found + 1 : -found - 1];
+        }
+
+        private long review(long productId) {
+            long[] ids = reviewIdsByProduct.get(productId);
+            return ids[random.nextInt(ids.length)];
+        }
+    }
+
+    private record Result(List<Call> calls, long[] latencyNanos, boolean[] failed, long elapsedMillis) {
+
+        private int failures() {
+            int count = 0;
+            for (boolean f : failed) {
+                count += f ? 1 : 0;
+            }
+            return count;
+        }
+
+        private void print() {
+            line("all", allIndexes());
+            Map<Operation, List<Integer>> byOperation = new EnumMap<>(Operation.class);
+            for (int i = 0; i < calls.size(); i++) {
+                byOperation.computeIfAbsent(calls.get(i).operation(), operation -> new ArrayList<>()).add(i);
+            }
+            byOperation.forEach((operation, indexes) -> line(operation.name().toLowerCase(), indexes));
+        }
+
+        private List<Integer> allIndexes() {
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < calls.size(); i++) {
+                indexes.add(i);
+            }
+            return indexes;
+        }
+
+        // Throughput of an operation is its share of the run, over the whole run
+        private void line(String label, List<Integer> indexes) {
+            long[] sortedMillis = indexes.stream().mapToLong(i -> TimeUnit.NANOSECONDS.toMillis(latencyNanos[i])).sorted().toArray();
+            long failures = indexes.stream().filter(i -> failed[i]).count();
+            System.out.printf("  %-13s: %6d requests, %8.1f req/s, p50 %4d ms, p95 %5d ms, p99 %5d ms, max %5d ms, %d failed%n",
+                    label, sortedMillis.length, sortedMillis.length * 1000.0 / Math.max(1, elapsedMillis),
+                    percentile(sortedMillis, 0.50), percentile(sortedMillis, 0.95), percentile(sortedMillis, 0.99),
+                    sortedMillis[sortedMillis.length - 1], failures);
+        }
+
+        private static long percentile(long[] sortedMillis, double p) {
+            return sortedMillis[(int) Math.min(sortedMillis.length - 1, Math.ceil(p * sortedMillis.length) - 1)];
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.ProductRatingStats;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.ReviewReport;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewReportRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Set-based review deletes (bulk delete, purge by author, reject): the votes and reports of the deleted
+ * reviews go with them, other rows are untouched, and the rating aggregates end up where a full
+ * reconcile from the 'reviews' table puts them.
+ */
+@SpringBootTest
+class AdminServiceTest {
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReviewReportRepository reviewReportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deleteReviewsRemovesTheirVotesAndReportsAndMovesTheAggregates() {
+        Long first = newProduct("Bulk Delete Product A");
+        Long second = newProduct("Bulk Delete Product B");
+        Long voter = newUser("bulk_delete_voter");
+        Long reporter = newUser("bulk_delete_reporter");
+
+        Long keptFive = newReview(first, newUser("bulk_delete_author_0"), 5);
+        Long deletedFive = newReview(first, newUser("bulk_delete_author_1"), 5);
+        Long deletedThree = newReview(first, newUser("bulk_delete_author_2"), 3);
+        Long keptOne = newReview(first, newUser("bulk_delete_author_3"), 1);
+        Long keptFour = newReview(second, newUser("bulk_delete_author_4"), 4);
+        Long deletedTwo = newReview(second, newUser("bulk_delete_author_5"), 2);
+        List<Long> all = List.of(keptFive, deletedFive, deletedThree, keptOne, keptFour, deletedTwo);
+        for (Long reviewId : all) {
+            vote(voter, reviewId);
+            report(reporter, reviewId);
+        }
+
+        // Missing and repeated ids are skipped
+        int deleted = adminService.deleteReviews(Arrays.asList(deletedFive, deletedThree, deletedTwo, deletedTwo,
+                Long.MAX_VALUE, null));
+
+        assertThat(deleted).isEqualTo(3);
+        List<Long> gone = List.of(deletedFive, deletedThree, deletedTwo);
+        List<Long> kept = List.of(keptFive, keptOne, keptFour);
+        assertThat(rows("reviews", "id", gone)).isZero();
+        assertThat(rows("review_votes", "review_id", gone)).isZero();
+        assertThat(rows("review_reports", "review_id", gone)).isZero();
+        assertThat(rows("reviews", "id", kept)).isEqualTo(3);
+        assertThat(rows("review_votes", "review_id", kept)).isEqualTo(3);
+        assertThat(rows("review_reports", "review_id", kept)).isEqualTo(3);
+
+        ProductRatingStats stats = ratingStatsService.getStats(first);
+        assertThat(stats.getReviewCount()).isEqualTo(2);
+        assertThat(stats.getRatingSum()).isEqualTo(6);
+        assertThat(stats.getStar3Count()).isZero();
+        assertThat(ratingStatsService.getStats(second).getRatingSum()).isEqualTo(4);
+        assertAggregatesMatchReconcile(first, second);
+    }
+
+    @Test
+    void purgeDeletesEveryReviewOfTheAuthor() {
+        Long first = newProduct("Purge Product A");
+        Long second = newProduct("Purge Product B");
+        Long author = newUser("purge_author");
+        Long other = newUser("purge_other");
+
+        Long purgedFirst = newReview(first, author, 2);
+        Long purgedSecond = newReview(second, author, 5);
+        Long kept = newReview(first, other, 4);
+        vote(other, purgedFirst);
+        vote(author, kept);
+        report(other, purgedSecond);
+
+        assertThat(adminService.purgeReviewsByUser("purge_author")).isEqualTo(2);
+
+        assertThat(rows("reviews", "id", List.of(purgedFirst, purgedSecond))).isZero();
+        assertThat(rows("review_votes", "review_id", List.of(purgedFirst))).isZero();
+        assertThat(rows("review_reports", "review_id", List.of(purgedSecond))).isZero();
+        // The author's vote on someone else's review stays
+        assertThat(rows("review_votes", "review_id", List.of(kept))).isEqualTo(1);
+
+        assertThat(ratingStatsService.getStats(first).getReviewCount()).isEqualTo(1);
+        assertThat(ratingStatsService.getStats(second).getReviewCount()).isZero();
+        assertAggregatesMatchReconcile(first, second);
+
+        assertThatThrownBy(() -> adminService.purgeReviewsByUser("purge_nobody"))
+                .hasMessage("User not found: purge_nobody");
+    }
+
+    @Test
+    void rejectedReviewIsDeletedWithItsReports() {
+        Long productId = newProduct("Reject Product");
+        Long reviewId = newReview(productId, newUser("reject_author"), 1);
+        Long approvedId = newReview(productId, newUser("reject_other_author"), 3);
+        report(newUser("reject_reporter"), reviewId);
+
+        adminService.moderateReview(approvedId, true);
+        adminService.moderateReview(reviewId, false);
+
+        assertThat(rows("reviews", "id", List.of(reviewId))).isZero();
+        assertThat(rows("review_reports", "review_id", List.of(reviewId))).isZero();
+        assertThat(rows("reviews", "id", List.of(approvedId))).isEqualTo(1);
+        assertThat(ratingStatsService.getStats(productId).getRatingSum()).isEqualTo(3);
+        assertAggregatesMatchReconcile(productId);
+
+        assertThatThrownBy(() -> adminService.moderateReview(reviewId, false))
+                .hasMessage("Review not found with ID: " + reviewId);
+    }
+
+    // The incrementally maintained aggregates must survive a rebuild from the 'reviews' table unchanged
+    private void assertAggregatesMatchReconcile(Long... productIds) {
+        List<ProductRatingStats> maintained = Arrays.stream(productIds).map(ratingStatsService::getStats).toList();
+        ratingStatsService.reconcileAll();
+        List<ProductRatingStats> reconciled = Arrays.stream(productIds).map(ratingStatsService::getStats).toList();
+        assertThat(maintained).isEqualTo(reconciled);
+    }
+
+    private int rows(String table, String column, Collection<Long> ids) {
+        String placeholders = String.join(", ", ids.stream().map(id -> "?").toList());
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " IN (" + placeholders + ")",
+                Integer.class, ids.toArray());
+    }
+
+    private void vote(Long userId, Long reviewId) {
+        jdbcTemplate.update("INSERT INTO review_votes (user_id, review_id) VALUES (?, ?)", userId, reviewId);
+    }
+
+    private void report(Long reporterId, Long reviewId) {
+        ReviewReport report = new ReviewReport();
+        report.setReview(reviewRepository.getReferenceById(reviewId));
+        report.setReporter(userRepository.getReferenceById(reporterId));
+        report.setReason("Spam/Advertising");
+        report.setReportDate(LocalDateTime.now());
+        reviewReportRepository.save(report);
+    }
+
+    private Long newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user).getId();
+    }
+
+    private Long newProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        return productRepository.save(product).getId();
+    }
+
+    // Saved and counted in one transaction, as ReviewService does
+    private Long newReview(Long productId, Long authorId, int rating) {
+        return transactionTemplate.execute(status -> {
+            Review review = new Review();
+            review.setProduct(productRepository.getReferenceById(productId));
+            review.setUser(userRepository.getReferenceById(authorId));
+            review.setRating(rating);
+            review.setComment("A review to moderate");
+            review.setReviewDate(LocalDateTime.now());
+            Long id = reviewRepository.save(review).getId();
+            ratingStatsService.recordReviewAdded(productId, rating);
+            return id;
+        });
+    }
+}
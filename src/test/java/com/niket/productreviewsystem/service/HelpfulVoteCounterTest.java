@@ -0,0 +1,166 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention test for helpful votes: 500 threads, each a different user, vote on the same review, first
+ * through the full addVote path, then on the counter itself. The write-behind counter must never lose a vote.
+ * Throughput comparisons live in VoteContentionBenchmark (JMH).
+ */
+@SpringBootTest
+class HelpfulVoteCounterTest {
+
+    private static final int VOTERS = 500;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private HelpfulVoteCounter helpfulVoteCounter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product;
+    private Review review;
+    private final List<User> voters = new ArrayList<>();
+
+    @BeforeEach
+    void seedViralReview() {
+        product = new Product();
+        product.setName("Vote Contention Product");
+        product = productRepository.save(product);
+
+        User author = newUser("hv_author");
+        voters.add(author);
+
+        review = new Review();
+        review.setProduct(product);
+        review.setUser(author);
+        review.setRating(5);
+        review.setComment("A review everyone finds helpful");
+        review = reviewRepository.save(review);
+
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            batch.add(newUser("hv_voter_" + i));
+        }
+        voters.addAll(userRepository.saveAll(batch));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM review_votes WHERE review_id = ?", review.getId());
+        reviewRepository.deleteById(review.getId());
+        userRepository.deleteAll(voters);
+        productRepository.delete(product);
+        voters.clear();
+    }
+
+    @Test
+    void writeBehindCounterLosesNoVotesUnderContention() throws Exception {
+        runVoters(username -> reviewService.addVote(review.getId(), "UP"));
+        helpfulVoteCounter.flush();
+
+        assertThat(helpfulVotes()).as("helpful_votes after flush").isEqualTo(VOTERS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM review_votes WHERE review_id = ?", Integer.class, review.getId()))
+                .as("review_votes rows").isEqualTo(VOTERS);
+    }
+
+    @Test
+    void counterAppliesEveryConcurrentDeltaAndKeepsNoEntriesAfterFlush() throws Exception {
+        int votesPerThread = 4;
+        int total = VOTERS * votesPerThread;
+
+        runVoters(username -> {
+            for (int i = 0; i < votesPerThread; i++) {
+                helpfulVoteCounter.add(review.getId(), 1);
+            }
+        });
+        helpfulVoteCounter.flush();
+
+        assertThat(helpfulVotes()).as("helpful_votes after flush").isEqualTo(total);
+        assertThat(helpfulVoteCounter.getPendingDelta(review.getId())).isZero();
+        assertThat(helpfulVoteCounter.getPendingReviewCount()).as("entries left after the flush").isZero();
+
+        // A vote and its removal cancel out without leaving an entry behind
+        helpfulVoteCounter.add(review.getId(), 1);
+        helpfulVoteCounter.add(review.getId(), -1);
+        assertThat(helpfulVoteCounter.getPendingReviewCount()).as("entries left by a cancelled vote").isZero();
+        assertThat(helpfulVoteCounter.flush()).isZero();
+        assertThat(helpfulVotes()).isEqualTo(total);
+    }
+
+    // Starts one thread per voter behind a latch, so all votes hit the same review at once
+    private void runVoters(Consumer<String> vote) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(VOTERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            String username = "hv_voter_" + i;
+            results.add(pool.submit(() -> {
+                start.await();
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(username, null, List.of()));
+                try {
+                    vote.accept(username);
+                } catch (RuntimeException e) {
+                    // A lost or failed vote shows up in the counts below
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+    }
+
+    private int helpfulVotes() {
+        return jdbcTemplate.queryForObject("SELECT helpful_votes FROM reviews WHERE id = ?", Integer.class, review.getId());
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return username.equals("hv_author") ? userRepository.save(user) : user;
+    }
+}
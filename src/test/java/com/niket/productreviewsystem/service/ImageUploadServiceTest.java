@@ -0,0 +1,213 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.config.ImageProcessingConfig;
+import com.niket.productreviewsystem.model.AppUserDetails;
+import com.niket.productreviewsystem.model.ImageBlob;
+import com.niket.productreviewsystem.model.ImageStatus;
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.ReviewFormDTO;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ImageBlobRepository;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import com.niket.productreviewsystem.service.ImageUploadService.ImageTarget;
+import com.niket.productreviewsystem.service.ImageUploadService.StagedImage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Back-pressure on the image workers: with every worker and queue place taken, an upload is refused before its
+ * row is saved. Processed uploads of the same content share one blob, and an image whose header declares too
+ * many pixels is rejected without being decoded.
+ */
+@SpringBootTest(properties = {"images.processing.threads=1", "images.processing.queue-capacity=1"})
+class ImageUploadServiceTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    @Qualifier(ImageProcessingConfig.IMAGE_TASK_EXECUTOR)
+    private ThreadPoolTaskExecutor imageTaskExecutor;
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Test
+    void uploadIsRefusedWhileEveryProcessingSlotIsTaken() throws Exception {
+        Product product = new Product();
+        product.setName("Full Image Queue Product");
+        Long productId = productRepository.save(product).getId();
+
+        User user = new User();
+        user.setUsername("full_queue_author");
+        user.setEmail("full_queue_author@example.com");
+        user.setPassword("password");
+        Long userId = userRepository.save(user).getId();
+
+        // 1. Take the only worker place and the only queue place
+        awaitIdleWorkers();
+        List<StagedImage> held = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            held.add(imageUploadService.stage(new MockMultipartFile("imageFile", "held.png", "image/png", png(8, 8)),
+                    ImageTarget.REVIEW));
+        }
+
+        // 2. The upload is refused before the review is saved; nothing runs on the request thread
+        assertThatThrownBy(() -> saveReviewWithImage(userId, "full_queue_author", productId, png(64, 48)))
+                .hasMessage("Too many images are being processed right now. Please try again in a moment.");
+        assertThat(reviewRepository.findByProductId(productId)).isEmpty();
+
+        // 3. A discarded upload gives its place back
+        imageUploadService.discard(held.get(0));
+        saveReviewWithImage(userId, "full_queue_author", productId, png(64, 48));
+        assertThat(awaitProcessed(productId).getImageStatus()).isEqualTo(ImageStatus.READY);
+        imageUploadService.discard(held.get(1));
+    }
+
+    @Test
+    void sameContentUploadedTwiceSharesOneBlob() throws Exception {
+        Product product = new Product();
+        product.setName("Duplicate Image Product");
+        Long productId = productRepository.save(product).getId();
+        byte[] content = png(40, 30);
+
+        for (int i = 0; i < 2; i++) {
+            User user = new User();
+            user.setUsername("duplicate_image_" + i);
+            user.setEmail("duplicate_image_" + i + "@example.com");
+            user.setPassword("password");
+            saveReviewWithImage(userRepository.save(user).getId(), "duplicate_image_" + i, productId, content);
+        }
+
+        // Processed by the workers: wait for both rows to be published
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<Review> reviews = reviewRepository.findByProductId(productId);
+        while (reviews.stream().anyMatch(review -> review.getImageStatus() != ImageStatus.READY)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            reviews = reviewRepository.findByProductId(productId);
+        }
+        assertThat(reviews).extracting(Review::getImageStatus).containsOnly(ImageStatus.READY);
+        assertThat(reviews.get(0).getImagePath()).isEqualTo(reviews.get(1).getImagePath());
+
+        String imagePath = reviews.get(0).getImagePath();
+        String digest = imagePath.substring(imagePath.lastIndexOf('/') + 1, imagePath.lastIndexOf('.'));
+        ImageBlob blob = imageBlobRepository.findById(digest).orElseThrow();
+        assertThat(blob.getRefCount()).isEqualTo(2);
+    }
+
+    @Test
+    void imageWithTooManyPixelsIsRejected() throws Exception {
+        Product product = new Product();
+        product.setName("Oversized Image Product");
+        Long productId = productRepository.save(product).getId();
+        User user = new User();
+        user.setUsername("oversized_image_author");
+        user.setEmail("oversized_image_author@example.com");
+        user.setPassword("password");
+
+        // A valid PNG header for 600 x 100000 pixels; the pixel data would never be read
+        saveReviewWithImage(userRepository.save(user).getId(), "oversized_image_author", productId, pngHeader(600, 100_000));
+
+        Review review = awaitProcessed(productId);
+        assertThat(review.getImageStatus()).isEqualTo(ImageStatus.REJECTED);
+        assertThat(review.getImagePath()).isNull();
+    }
+
+    // The only review of the product, once its image has left PENDING
+    private Review awaitProcessed(Long productId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Review review = reviewRepository.findByProductId(productId).get(0);
+        while (review.getImageStatus() == ImageStatus.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            review = reviewRepository.findByProductId(productId).get(0);
+        }
+        return review;
+    }
+
+    // Uploads of earlier tests give their place back when their task ends
+    private void awaitIdleWorkers() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((imageTaskExecutor.getActiveCount() > 0 || imageTaskExecutor.getQueueSize() > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private void saveReviewWithImage(Long userId, String username, Long productId, byte[] content) {
+        AppUserDetails author = new AppUserDetails(userId, username, "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities()));
+        try {
+            ReviewFormDTO dto = new ReviewFormDTO();
+            dto.setProductId(productId);
+            dto.setRating(4);
+            dto.setComment("Review with a photo");
+            dto.setImageFile(new MockMultipartFile("imageFile", "photo.png", "image/png", content));
+            reviewService.saveReview(dto);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0x3366CC);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    // PNG signature, IHDR (8-bit grayscale) and IEND, with no image data
+    private static byte[] pngHeader(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        ByteBuffer ihdr = ByteBuffer.allocate(13).putInt(width).putInt(height).put(new byte[]{8, 0, 0, 0, 0});
+        writeChunk(out, "IHDR", ihdr.array());
+        writeChunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) throws Exception {
+        CRC32 crc = new CRC32();
+        crc.update(type.getBytes(StandardCharsets.US_ASCII));
+        crc.update(data);
+        out.write(ByteBuffer.allocate(4).putInt(data.length).array());
+        out.write(type.getBytes(StandardCharsets.US_ASCII));
+        out.write(data);
+        out.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+}
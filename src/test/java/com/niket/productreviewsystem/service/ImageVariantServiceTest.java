@@ -0,0 +1,144 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.service.ImageVariantService.Variant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Variants of an image with an extreme aspect ratio are decoded within the pixel budget, not at full size.
+ * Lazily derived variants: an oversized legacy image is refused once and remembered, and concurrent first
+ * requests share one derivation.
+ */
+@SpringBootTest
+class ImageVariantServiceTest {
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    // resolveOriginal() asks it once per derivation of an /uploads/ image
+    @MockitoSpyBean
+    private ImageBlobStore imageBlobStore;
+
+    @Value("${review.upload.dir}")
+    private String reviewUploadDir;
+
+    @TempDir
+    private Path stagingDir;
+
+    @Test
+    void tallImageIsSubsampledByAreaNotOnlyByWidth() throws Exception {
+        // Narrower than the thumbnail, so the width alone would not subsample it at all
+        Path original = stagingDir.resolve("tall.png");
+        ImageIO.write(new BufferedImage(100, 20_000, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+        assertThat(imageVariantService.exceedsPixelLimit(original)).isFalse();
+        Map<Variant, String> variants = imageVariantService.createVariants(original);
+
+        assertThat(variants).containsKey(Variant.THUMBNAIL);
+        BufferedImage thumbnail = ImageIO.read(original.resolveSibling(variants.get(Variant.THUMBNAIL)).toFile());
+        long budget = 4L * Variant.THUMBNAIL.getWidth() * Variant.THUMBNAIL.getWidth();
+        assertThat((long) thumbnail.getWidth() * thumbnail.getHeight()).isLessThanOrEqualTo(budget);
+    }
+
+    @Test
+    void oversizedLegacyImageIsNotDerivedAndNotReadAgain() throws Exception {
+        // A valid PNG header for 600 x 100000 pixels, uploaded before the limit existed
+        String publicPath = "/uploads/" + writeUpload(pngHeader(600, 100_000));
+
+        assertThat(imageVariantService.getOrCreateVariant(publicPath, Variant.THUMBNAIL)).isNull();
+        assertThat(imageVariantService.getOrCreateVariant(publicPath, Variant.THUMBNAIL)).isNull();
+        verify(imageBlobStore, times(1)).isBlobPath(publicPath);
+    }
+
+    @Test
+    void concurrentFirstRequestsShareOneDerivation() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB), "png", png);
+        String publicPath = "/uploads/" + writeUpload(png.toByteArray());
+        // Slow the derivation down, so every request arrives while the first one runs
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            return invocation.callRealMethod();
+        }).when(imageBlobStore).isBlobPath(publicPath);
+
+        int requests = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return imageVariantService.getOrCreateVariant(publicPath, Variant.PREVIEW);
+                }));
+            }
+            start.countDown();
+            Set<Path> variants = new HashSet<>();
+            for (Future<Path> result : results) {
+                variants.add(result.get(10, TimeUnit.SECONDS));
+            }
+            assertThat(variants).hasSize(1).doesNotContainNull();
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(imageBlobStore, times(1)).isBlobPath(publicPath);
+    }
+
+    private String writeUpload(byte[] content) throws Exception {
+        String fileName = UUID.randomUUID() + ".png";
+        Path file = Paths.get(reviewUploadDir).resolve(fileName);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return fileName;
+    }
+
+    // PNG signature, IHDR (8-bit grayscale) and IEND, with no image data
+    private static byte[] pngHeader(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        ByteBuffer ihdr = ByteBuffer.allocate(13).putInt(width).putInt(height).put(new byte[]{8, 0, 0, 0, 0});
+        writeChunk(out, "IHDR", ihdr.array());
+        writeChunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) throws Exception {
+        CRC32 crc = new CRC32();
+        crc.update(type.getBytes(StandardCharsets.US_ASCII));
+        crc.update(data);
+        out.write(ByteBuffer.allocate(4).putInt(data.length).array());
+        out.write(type.getBytes(StandardCharsets.US_ASCII));
+        out.write(data);
+        out.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+}
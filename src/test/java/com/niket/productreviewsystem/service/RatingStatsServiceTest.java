@@ -0,0 +1,98 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.AppUserDetails;
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.ProductRatingStats;
+import com.niket.productreviewsystem.model.ReviewFormDTO;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The rating aggregate row of a product is created by its first review; several first reviews
+ * arriving together must all be saved and all be counted.
+ */
+@SpringBootTest
+class RatingStatsServiceTest {
+
+    private static final int AUTHORS = 8;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentFirstReviewsAreAllSavedAndCounted() throws Exception {
+        Product product = new Product();
+        product.setName("First Review Race Product");
+        Long productId = productRepository.save(product).getId();
+
+        List<Long> authorIds = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            User user = new User();
+            user.setUsername("first_review_" + i);
+            user.setEmail("first_review_" + i + "@example.com");
+            user.setPassword("password");
+            authorIds.add(userRepository.save(user).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(AUTHORS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            AppUserDetails author = new AppUserDetails(authorIds.get(i), "first_review_" + i, "", List.of());
+            int rating = 1 + i % 5;
+            results.add(pool.submit(() -> {
+                start.await();
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities()));
+                try {
+                    ReviewFormDTO dto = new ReviewFormDTO();
+                    dto.setProductId(productId);
+                    dto.setRating(rating);
+                    dto.setComment("One of several first reviews");
+                    reviewService.saveReview(dto);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(); // rethrows a failed save
+        }
+        pool.shutdown();
+
+        ProductRatingStats stats = ratingStatsService.getStats(productId);
+        assertThat(stats.getReviewCount()).isEqualTo(AUTHORS);
+        int ratingSum = 0;
+        for (int i = 0; i < AUTHORS; i++) {
+            ratingSum += 1 + i % 5;
+        }
+        assertThat(stats.getRatingSum()).isEqualTo(ratingSum);
+        assertThat(stats.getStarCount(1)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,141 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.ReviewImportJob;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewImportJobRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Imports in chunks of two records: the checkpoint moves with every committed chunk, rejected rows are kept
+ * for the report, and a resumed job continues after its checkpoint.
+ */
+@SpringBootTest(properties = "imports.chunk-size=2")
+class ReviewImportServiceTest {
+
+    @Autowired
+    private ReviewImportService reviewImportService;
+
+    @Autowired
+    private ReviewImportJobRepository jobRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingStatsService ratingStatsService;
+
+    @Value("${imports.inbox-dir}")
+    private String inboxDir;
+
+    @Test
+    void importCommitsEveryChunkAndReportsRejectedRows() throws Exception {
+        Long productId = newProduct("Chunked Import Product");
+        String csv = "product_id,username,rating,comment\n"
+                + productId + ",import_chunk_a,5,Imported\n"
+                + productId + ",import_chunk_b,0,Rating out of range\n"
+                // Second chunk: a duplicate of a review committed by the first one, and an unknown product
+                + productId + ",import_chunk_a,4,Second review by the same user\n"
+                + Long.MAX_VALUE + ",import_chunk_c,4,No such product\n"
+                + productId + ",import_chunk_d,3,\"Imported too,\nover two lines\"\n";
+
+        ReviewImportJob job = reviewImportService.importUpload(
+                new MockMultipartFile("file", "reviews.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)), "admin");
+        ReviewImportJob done = awaitFinished(job.getId());
+
+        assertThat(done.getStatus()).isEqualTo(ReviewImportJob.Status.COMPLETED);
+        assertThat(done.getCheckpoint()).isEqualTo(5);
+        assertThat(done.getImportedCount()).isEqualTo(2);
+        assertThat(done.getRejectedCount()).isEqualTo(3);
+        assertThat(reviewRepository.findByProductId(productId)).hasSize(2);
+        assertThat(ratingStatsService.getStats(productId).getRatingSum()).isEqualTo(8);
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        assertThat(reviewImportService.writeRejectedRows(job.getId(), report)).isEqualTo(3);
+        List<String> lines = report.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).isEqualTo("record_number,reason,record");
+        assertThat(lines.subList(1, lines.size())).extracting(line -> line.substring(0, line.indexOf(',')))
+                .containsExactly("2", "3", "4");
+        assertThat(lines.get(2)).contains("User import_chunk_a has already reviewed product " + productId + ".");
+    }
+
+    @Test
+    void resumedImportContinuesAfterItsCheckpoint() throws Exception {
+        Long productId = newProduct("Resumed Import Product");
+        Path source = Paths.get(inboxDir).resolve("resume-" + productId + ".ndjson");
+        Files.createDirectories(source.getParent());
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            ndjson.append("{\"product_id\": ").append(productId).append(", \"username\": \"import_resume_").append(i)
+                    .append("\", \"rating\": 4}\n");
+        }
+        Files.writeString(source, ndjson);
+
+        // A run that failed after committing its first chunk
+        ReviewImportJob failed = new ReviewImportJob();
+        failed.setFileName(source.getFileName().toString());
+        failed.setFormat(ReviewImportJob.Format.NDJSON);
+        failed.setSourcePath(source.toString());
+        failed.setStatus(ReviewImportJob.Status.FAILED);
+        failed.setCheckpoint(2);
+        failed.setImportedCount(2);
+        failed.setLastError("Connection lost");
+        Long jobId = jobRepository.save(failed).getId();
+
+        reviewImportService.resume(jobId);
+        ReviewImportJob done = awaitFinished(jobId);
+
+        assertThat(done.getStatus()).isEqualTo(ReviewImportJob.Status.COMPLETED);
+        assertThat(done.getCheckpoint()).isEqualTo(5);
+        assertThat(done.getImportedCount()).isEqualTo(5);
+        // Only the records after the checkpoint were read again
+        assertThat(userRepository.existsByUsername("import_resume_1")).isFalse();
+        assertThat(userRepository.existsByUsername("import_resume_2")).isTrue();
+        assertThat(reviewRepository.findByProductId(productId)).hasSize(3);
+        // The inbox file is left in place
+        assertThat(Files.exists(source)).isTrue();
+
+        assertThatThrownBy(() -> reviewImportService.resume(jobId))
+                .hasMessage("Only failed or interrupted imports can be resumed.");
+        Files.delete(source);
+    }
+
+    private ReviewImportJob awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ReviewImportJob job = jobRepository.findById(jobId).orElseThrow();
+        while ((job.getStatus() == ReviewImportJob.Status.QUEUED || job.getStatus() == ReviewImportJob.Status.RUNNING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            job = jobRepository.findById(jobId).orElseThrow();
+        }
+        return job;
+    }
+
+    private Long newProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        return productRepository.save(product).getId();
+    }
+}
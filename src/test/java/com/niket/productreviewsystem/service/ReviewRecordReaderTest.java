@@ -0,0 +1,128 @@
+package com.niket.productreviewsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.niket.productreviewsystem.model.ReviewImportJob;
+import com.niket.productreviewsystem.service.ReviewRecordReader.ImportRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Record parsing of both import formats: quoted CSV fields spanning lines, NDJSON objects, blank lines,
+ * and records that are returned as errors instead of failing the file.
+ */
+class ReviewRecordReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvQuotedFieldsKeepLineBreaksCommasAndQuotes() throws IOException {
+        String csv = "﻿Product_ID,username,rating,comment\r\n"
+                + "1,alice,5,\"Line one\r\nline \"\"two\"\", still one field\"\r\n"
+                + "\r\n"
+                + "2,bob,4,plain\n";
+
+        List<ImportRecord> records = readAll(ReviewImportJob.Format.CSV, csv);
+
+        assertThat(records).hasSize(2);
+        ImportRecord first = records.get(0);
+        assertThat(first.number()).isEqualTo(1);
+        assertThat(first.error()).isNull();
+        assertThat(first.field("product_id")).isEqualTo("1");
+        assertThat(first.field("comment")).isEqualTo("Line one\r\nline \"two\", still one field");
+        assertThat(first.raw()).isEqualTo("1,alice,5,\"Line one\r\nline \"\"two\"\", still one field\"");
+
+        // The blank line is skipped and not counted
+        ImportRecord second = records.get(1);
+        assertThat(second.number()).isEqualTo(2);
+        assertThat(second.field("username", "user")).isEqualTo("bob");
+        assertThat(second.field("comment")).isEqualTo("plain");
+    }
+
+    @Test
+    void csvMissingValuesAreAbsentAndExtraValuesIgnored() throws IOException {
+        List<ImportRecord> records = readAll(ReviewImportJob.Format.CSV,
+                "product_id,user,rating\n3,carol\n4,dave,2,surplus\n");
+
+        assertThat(records.get(0).fields()).containsOnlyKeys("product_id", "user");
+        assertThat(records.get(1).fields()).containsEntry("rating", "2").hasSize(3);
+    }
+
+    @Test
+    void csvUnterminatedQuoteIsAnErrorRecord() throws IOException {
+        List<ImportRecord> records = readAll(ReviewImportJob.Format.CSV,
+                "product_id,username,rating,comment\n5,erin,3,\"never closed\n6,frank,4,ok\n");
+
+        // The open quote swallows the rest of the file into one record
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).error()).isEqualTo("Unterminated quoted field.");
+        assertThat(records.get(0).fields()).isEmpty();
+    }
+
+    @Test
+    void csvHeaderMustNameTheRequiredColumns() {
+        assertThatThrownBy(() -> readAll(ReviewImportJob.Format.CSV, "product_id,comment\n1,no rating\n"))
+                .hasMessage("The CSV header must name the product_id, username and rating columns.");
+        assertThatThrownBy(() -> readAll(ReviewImportJob.Format.CSV, ""))
+                .hasMessage("The CSV file must start with a header row.");
+    }
+
+    @Test
+    void ndjsonObjectsBecomeLowerCaseFields() throws IOException {
+        String ndjson = "{\"Product_ID\": 7, \"username\": \"grace\", \"rating\": 5, \"comment\": \"Nice\","
+                + " \"tags\": {\"color\": \"red\"}, \"review_date\": null}\n"
+                + "\n"
+                + "{\"product_id\": \"8\", \"user\": \"heidi\", \"rating\": 3}\n";
+
+        List<ImportRecord> records = readAll(ReviewImportJob.Format.NDJSON, ndjson);
+
+        assertThat(records).hasSize(2);
+        ImportRecord first = records.get(0);
+        assertThat(first.number()).isEqualTo(1);
+        assertThat(first.fields())
+                .containsEntry("product_id", "7")
+                .containsEntry("rating", "5")
+                .containsEntry("comment", "Nice")
+                // Nested values are kept as JSON, nulls are absent
+                .containsEntry("tags", "{\"color\":\"red\"}")
+                .doesNotContainKey("review_date");
+        assertThat(records.get(1).number()).isEqualTo(2);
+        assertThat(records.get(1).field("username", "user")).isEqualTo("heidi");
+    }
+
+    @Test
+    void ndjsonBadLinesAreErrorRecordsAndReadingGoesOn() throws IOException {
+        String ndjson = "not json\n"
+                + "[1, 2]\n"
+                + "{\"comment\": \"" + "x".repeat(ReviewRecordReader.MAX_RECORD_CHARS) + "\"}\n"
+                + "{\"product_id\": 9, \"username\": \"ivan\", \"rating\": 4}\n";
+
+        List<ImportRecord> records = readAll(ReviewImportJob.Format.NDJSON, ndjson);
+
+        assertThat(records).extracting(ImportRecord::number).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(records.get(0).error()).startsWith("Invalid JSON");
+        assertThat(records.get(0).raw()).isEqualTo("not json");
+        assertThat(records.get(1).error()).isEqualTo("Each line must be a JSON object.");
+        assertThat(records.get(2).error()).isEqualTo("Record is longer than " + ReviewRecordReader.MAX_RECORD_CHARS + " characters.");
+        assertThat(records.get(2).raw()).hasSize(ReviewRecordReader.MAX_KEPT_CHARS);
+        assertThat(records.get(3).error()).isNull();
+        assertThat(records.get(3).field("product_id")).isEqualTo("9");
+    }
+
+    private List<ImportRecord> readAll(ReviewImportJob.Format format, String content) throws IOException {
+        List<ImportRecord> records = new ArrayList<>();
+        try (ReviewRecordReader reader = ReviewRecordReader.open(format, new StringReader(content), objectMapper)) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
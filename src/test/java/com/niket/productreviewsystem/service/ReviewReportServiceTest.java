@@ -0,0 +1,192 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.AppUserDetails;
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.ReportedReviewDTO;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The moderation queue ordered by the maintained pending report counts: keyset paging, the reason
+ * breakdown, processing a review's reports, and the recount that repairs drifted counts.
+ * <p>
+ * The queue is shared with every other test's reports, so assertions look at the reviews created here only.
+ */
+@SpringBootTest
+class ReviewReportServiceTest {
+
+    @Autowired
+    private ReviewReportService reviewReportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void queueListsMostReportedFirstAcrossPages() {
+        Long productId = newProduct("Report Queue Product");
+        Long once = newReview(productId, "report_queue_author_0");
+        Long thrice = newReview(productId, "report_queue_author_1");
+        Long twiceOlder = newReview(productId, "report_queue_author_2");
+        Long twiceNewer = newReview(productId, "report_queue_author_3");
+
+        report(once, "report_queue_reporter_0", "Spam/Advertising", null);
+        report(thrice, "report_queue_reporter_0", "Spam/Advertising", null);
+        report(thrice, "report_queue_reporter_1", "Spam/Advertising", null);
+        report(thrice, "report_queue_reporter_2", "Other", "Copied from another site");
+        report(twiceOlder, "report_queue_reporter_0", "Irrelevant Content", null);
+        report(twiceOlder, "report_queue_reporter_1", "Irrelevant Content", null);
+        report(twiceNewer, "report_queue_reporter_1", "Irrelevant Content", null);
+        report(twiceNewer, "report_queue_reporter_2", "Irrelevant Content", null);
+
+        List<ReportedReviewDTO> queue = ownEntries(wholeQueue(2), Set.of(once, thrice, twiceOlder, twiceNewer));
+
+        // Ties on the count go to the higher review id
+        assertThat(queue).extracting(ReportedReviewDTO::getReviewId).containsExactly(thrice, twiceNewer, twiceOlder, once);
+        assertThat(queue).extracting(ReportedReviewDTO::getPendingReports).containsExactly(3L, 2L, 2L, 1L);
+
+        ReportedReviewDTO top = queue.get(0);
+        assertThat(top.getProductName()).isEqualTo("Report Queue Product");
+        assertThat(top.getUsername()).isEqualTo("report_queue_author_1");
+        assertThat(top.getReasons()).containsExactly(
+                Map.entry("Spam/Advertising", 2L), Map.entry("Other: Copied from another site", 1L));
+        assertThat(top.getLastReportDate()).isNotNull();
+    }
+
+    @Test
+    void processedReportsLeaveTheQueue() {
+        Long productId = newProduct("Report Processing Product");
+        Long reviewId = newReview(productId, "report_processing_author");
+        report(reviewId, "report_processing_reporter_0", "Spam/Advertising", null);
+        report(reviewId, "report_processing_reporter_1", "Profanity/Hate Speech", null);
+        assertThat(pendingReports(reviewId)).isEqualTo(2);
+
+        assertThat(reviewReportService.markReportsAsProcessed(reviewId)).isEqualTo(2);
+        assertThat(pendingReports(reviewId)).isZero();
+        assertThat(ownEntries(wholeQueue(20), Set.of(reviewId))).isEmpty();
+        assertThatThrownBy(() -> reviewReportService.markReportsAsProcessed(reviewId))
+                .hasMessage("No pending reports found for Review ID " + reviewId + ".");
+
+        // A later report counts from zero again
+        report(reviewId, "report_processing_reporter_2", "Spam/Advertising", null);
+        assertThat(pendingReports(reviewId)).isEqualTo(1);
+        assertThat(ownEntries(wholeQueue(20), Set.of(reviewId))).hasSize(1);
+    }
+
+    @Test
+    void invalidReportsAreRejectedWithoutCounting() {
+        Long productId = newProduct("Report Validation Product");
+        Long reviewId = newReview(productId, "report_validation_author");
+        report(reviewId, "report_validation_reporter", "Spam/Advertising", null);
+
+        assertThatThrownBy(() -> report(reviewId, "report_validation_reporter", "Spam/Advertising", null))
+                .hasMessage("You have already reported this review.");
+        assertThatThrownBy(() -> report(reviewId, "report_validation_other", "Other", " "))
+                .hasMessage("Please explain your report reason.");
+        assertThatThrownBy(() -> report(Long.MAX_VALUE, "report_validation_other", "Spam/Advertising", null))
+                .hasMessage("Review not found for reporting.");
+        assertThat(pendingReports(reviewId)).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileRepairsDriftedCounts() {
+        Long productId = newProduct("Report Reconcile Product");
+        Long reviewId = newReview(productId, "report_reconcile_author");
+        Long unreported = newReview(productId, "report_reconcile_unreported");
+        report(reviewId, "report_reconcile_reporter_0", "Spam/Advertising", null);
+        report(reviewId, "report_reconcile_reporter_1", "Spam/Advertising", null);
+
+        // As for rows written before the column existed, or by a direct SQL update
+        jdbcTemplate.update("UPDATE reviews SET pending_reports = 0 WHERE id = ?", reviewId);
+        jdbcTemplate.update("UPDATE reviews SET pending_reports = 5 WHERE id = ?", unreported);
+
+        assertThat(reviewReportService.reconcilePendingCounts()).isGreaterThanOrEqualTo(2);
+        assertThat(pendingReports(reviewId)).isEqualTo(2);
+        assertThat(pendingReports(unreported)).isZero();
+        assertThat(reviewReportService.reconcilePendingCounts()).isZero();
+    }
+
+    // Follows the cursor to the end of the queue
+    private List<ReportedReviewDTO> wholeQueue(int pageSize) {
+        List<ReportedReviewDTO> queue = new ArrayList<>();
+        String cursor = null;
+        do {
+            Slice<ReportedReviewDTO> page = reviewReportService.getModerationQueue(cursor, pageSize);
+            assertThat(page.getContent().size()).isLessThanOrEqualTo(pageSize);
+            queue.addAll(page.getContent());
+            cursor = reviewReportService.getNextCursor(page);
+        } while (cursor != null);
+        return queue;
+    }
+
+    private static List<ReportedReviewDTO> ownEntries(List<ReportedReviewDTO> queue, Set<Long> reviewIds) {
+        return queue.stream().filter(dto -> reviewIds.contains(dto.getReviewId())).toList();
+    }
+
+    private int pendingReports(Long reviewId) {
+        return jdbcTemplate.queryForObject("SELECT pending_reports FROM reviews WHERE id = ?", Integer.class, reviewId);
+    }
+
+    private void report(Long reviewId, String reporterName, String reason, String otherReason) {
+        Long reporterId = userRepository.findByUsername(reporterName).map(User::getId).orElseGet(() -> newUser(reporterName));
+        AppUserDetails reporter = new AppUserDetails(reporterId, reporterName, "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(reporter, null, reporter.getAuthorities()));
+        try {
+            reviewReportService.submitReport(reviewId, reason, otherReason);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private Long newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user).getId();
+    }
+
+    private Long newProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        return productRepository.save(product).getId();
+    }
+
+    private Long newReview(Long productId, String authorName) {
+        Review review = new Review();
+        review.setProduct(productRepository.getReferenceById(productId));
+        review.setUser(userRepository.getReferenceById(newUser(authorName)));
+        review.setRating(2);
+        review.setComment("A review to report");
+        review.setReviewDate(LocalDateTime.now());
+        return reviewRepository.save(review).getId();
+    }
+}
@@ -0,0 +1,178 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.ReviewSearchResultDTO;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import org.apache.lucene.index.IndexWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Index, search and delete through the after-commit hooks, and the bulk rebuild from the 'reviews' table,
+ * including a rebuild that fails partway and the startup rebuild of an index on disk.
+ */
+@SpringBootTest
+class ReviewSearchServiceTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private ReviewSearchService reviewSearchService;
+
+    @MockitoSpyBean
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void indexedReviewIsFoundUntilRemoved() {
+        Long productId = newProduct("Search Lifecycle Product");
+        Review review = newReview(productId, "search_lifecycle", "The xylophone keys ring clearly");
+        reviewSearchService.indexAfterCommit(review.getId(), productId, review.getComment());
+        reviewSearchService.refresh();
+
+        // Stemmed: "xylophones" finds "xylophone"
+        assertThat(idsFound("xylophones", productId)).containsExactly(review.getId());
+        assertThat(idsFound("xylophone -keys", productId)).isEmpty();
+
+        reviewSearchService.removeAfterCommit(review.getId());
+        reviewSearchService.refresh();
+        assertThat(idsFound("xylophone", productId)).isEmpty();
+    }
+
+    @Test
+    void rebuildRestoresTheIndexFromTheTable() {
+        Long productId = newProduct("Search Rebuild Product");
+        Review first = newReview(productId, "search_rebuild_0", "A sturdy marimba stand");
+        Review second = newReview(productId, "search_rebuild_1", "The marimba mallets wore out");
+        // Not indexed after commit (saved directly), and a stale entry for a review that is not in the table
+        reviewSearchService.indexAfterCommit(Long.MAX_VALUE, productId, "A marimba that was never saved");
+        reviewSearchService.refresh();
+        assertThat(reviewSearchService.search("marimba", productId, FIRST_PAGE).getTotalElements()).isEqualTo(1);
+
+        long indexed = reviewSearchService.rebuild();
+
+        assertThat(indexed).isEqualTo(reviewRepository.count());
+        assertThat(idsFound("marimba", productId)).containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(reviewSearchService.search("marimba", productId, FIRST_PAGE).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRebuildKeepsThePreviousIndex() {
+        Long productId = newProduct("Search Failed Rebuild Product");
+        Review review = newReview(productId, "search_failed_rebuild", "This ocarina plays in tune");
+        reviewSearchService.indexAfterCommit(review.getId(), productId, review.getComment());
+        reviewSearchService.refresh();
+
+        doThrow(new DataAccessResourceFailureException("Connection lost"))
+                .when(reviewRepository).findSearchDocumentsAfter(anyLong(), any(Pageable.class));
+        try {
+            assertThatThrownBy(() -> reviewSearchService.rebuild()).isInstanceOf(DataAccessResourceFailureException.class);
+        } finally {
+            reset(reviewRepository);
+        }
+
+        reviewSearchService.refresh();
+        assertThat(idsFound("ocarina", productId)).containsExactly(review.getId());
+
+        // The next rebuild starts over cleanly
+        reviewSearchService.rebuild();
+        assertThat(idsFound("ocarina", productId)).containsExactly(review.getId());
+    }
+
+    @Test
+    void indexOnDiskIsRebuiltAtStartupOnlyWhenNotClosedCleanly(@TempDir Path storage) throws Exception {
+        String indexDir = storage.resolve("reviews").toString();
+        ReviewRepository repository = mock(ReviewRepository.class);
+        when(repository.findSearchDocumentsAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        // 1. A new index is rebuilt, then closed cleanly
+        ReviewSearchService first = openOnDisk(indexDir, repository);
+        first.rebuildOnStartup();
+        first.close();
+        verify(repository, times(1)).findSearchDocumentsAfter(anyLong(), any(Pageable.class));
+
+        // 2. Reopened: nothing to rebuild; this run then ends without a clean shutdown (only a periodic commit)
+        ReviewSearchService second = openOnDisk(indexDir, repository);
+        second.rebuildOnStartup();
+        verify(repository, times(1)).findSearchDocumentsAfter(anyLong(), any(Pageable.class));
+        second.commit();
+        crash(second);
+
+        // 3. After the crash the next startup rebuilds
+        ReviewSearchService third = openOnDisk(indexDir, repository);
+        third.rebuildOnStartup();
+        third.close();
+        verify(repository, times(2)).findSearchDocumentsAfter(anyLong(), any(Pageable.class));
+    }
+
+    private static ReviewSearchService openOnDisk(String indexDir, ReviewRepository repository) {
+        ReviewSearchService service = new ReviewSearchService(indexDir);
+        ReflectionTestUtils.setField(service, "reviewRepository", repository);
+        ReflectionTestUtils.setField(service, "rebuildOnStartup", true);
+        return service;
+    }
+
+    // Drops the writer without the shutdown commit, as a killed process would
+    private static void crash(ReviewSearchService service) throws Exception {
+        IndexWriter writer = (IndexWriter) ReflectionTestUtils.getField(service, "writer");
+        writer.rollback();
+    }
+
+    private List<Long> idsFound(String query, Long productId) {
+        return reviewSearchService.search(query, productId, FIRST_PAGE).getContent().stream()
+                .map(ReviewSearchResultDTO::getId)
+                .toList();
+    }
+
+    private Long newProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        return productRepository.save(product).getId();
+    }
+
+    private Review newReview(Long productId, String username, String comment) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+
+        Review review = new Review();
+        review.setProduct(productRepository.getReferenceById(productId));
+        review.setUser(userRepository.save(user));
+        review.setRating(5);
+        review.setComment(comment);
+        review.setReviewDate(LocalDateTime.now());
+        return reviewRepository.save(review);
+    }
+}
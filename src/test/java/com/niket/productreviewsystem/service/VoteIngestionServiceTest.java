@@ -0,0 +1,215 @@
+package com.niket.productreviewsystem.service;
+
+import com.niket.productreviewsystem.model.Product;
+import com.niket.productreviewsystem.model.Review;
+import com.niket.productreviewsystem.model.User;
+import com.niket.productreviewsystem.repository.ProductRepository;
+import com.niket.productreviewsystem.repository.ReviewRepository;
+import com.niket.productreviewsystem.repository.UserRepository;
+import com.niket.productreviewsystem.service.VoteIngestionService.VoteCommand;
+import com.niket.productreviewsystem.service.VoteIngestionService.VoteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vote results from the batch writer: sequential votes, several votes resolved within one batch, a vote on
+ * a missing review, and a batch that raced with another writer and is replayed one vote at a time.
+ * <p>
+ * To hold a batch open, another transaction keeps an uncommitted row for the pair the batch inserts:
+ * the writer waits on its lock while further votes queue up behind it.
+ */
+@SpringBootTest
+class VoteIngestionServiceTest {
+
+    @Autowired
+    private VoteIngestionService voteIngestionService;
+
+    @Autowired
+    private HelpfulVoteCounter helpfulVoteCounter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void sequentialVotesAreAcceptedOnceEach() {
+        Long reviewId = newReview("vote_sequence_author");
+        Long voterId = newUser("vote_sequence_voter");
+
+        assertThat(voteIngestionService.submit(new VoteCommand(voterId, reviewId, true))).isEqualTo(VoteResult.ACCEPTED);
+        assertThat(voteIngestionService.submit(new VoteCommand(voterId, reviewId, true))).isEqualTo(VoteResult.DUPLICATE);
+        assertThat(votes(reviewId)).isEqualTo(1);
+        assertThat(helpfulVotes(reviewId)).isEqualTo(1);
+
+        assertThat(voteIngestionService.submit(new VoteCommand(voterId, reviewId, false))).isEqualTo(VoteResult.ACCEPTED);
+        assertThat(voteIngestionService.submit(new VoteCommand(voterId, reviewId, false))).isEqualTo(VoteResult.DUPLICATE);
+        assertThat(votes(reviewId)).isZero();
+        assertThat(helpfulVotes(reviewId)).isZero();
+    }
+
+    @Test
+    void voteOnMissingReviewIsReported() {
+        Long voterId = newUser("vote_missing_voter");
+
+        assertThat(voteIngestionService.submit(new VoteCommand(voterId, Long.MAX_VALUE, true)))
+                .isEqualTo(VoteResult.REVIEW_NOT_FOUND);
+    }
+
+    @Test
+    void votesQueuedBehindABatchAreResolvedInArrivalOrder() throws Exception {
+        Long reviewId = newReview("vote_batch_author");
+        Long blockedId = newUser("vote_batch_blocked");
+        Long flipperId = newUser("vote_batch_flipper");
+        Long newcomerId = newUser("vote_batch_newcomer");
+
+        // 1. Hold the writer on its first batch; the other transaction rolls back, so that vote goes in
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdVoteRow(blockedId, reviewId, release, false);
+        Future<VoteResult> blocked = submitAndAwaitQueued(new VoteCommand(blockedId, reviewId, true), 0);
+        Thread.sleep(200); // Let the writer reach the locked row
+
+        // 2. Queue the next batch, in a known order
+        List<Future<VoteResult>> queued = new ArrayList<>();
+        queued.add(submitAndAwaitQueued(new VoteCommand(flipperId, reviewId, true), 1));
+        queued.add(submitAndAwaitQueued(new VoteCommand(flipperId, reviewId, true), 2));
+        queued.add(submitAndAwaitQueued(new VoteCommand(flipperId, reviewId, false), 3));
+        queued.add(submitAndAwaitQueued(new VoteCommand(newcomerId, Long.MAX_VALUE, true), 4));
+        queued.add(submitAndAwaitQueued(new VoteCommand(newcomerId, reviewId, false), 5));
+        queued.add(submitAndAwaitQueued(new VoteCommand(newcomerId, reviewId, true), 6));
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+
+        assertThat(blocked.get(10, TimeUnit.SECONDS)).isEqualTo(VoteResult.ACCEPTED);
+        List<VoteResult> results = new ArrayList<>();
+        for (Future<VoteResult> result : queued) {
+            results.add(result.get(10, TimeUnit.SECONDS));
+        }
+        assertThat(results).containsExactly(VoteResult.ACCEPTED, VoteResult.DUPLICATE, VoteResult.ACCEPTED,
+                VoteResult.REVIEW_NOT_FOUND, VoteResult.DUPLICATE, VoteResult.ACCEPTED);
+
+        // The flipper's vote cancelled out within the batch: only the blocked voter and the newcomer count
+        assertThat(votes(reviewId)).isEqualTo(2);
+        assertThat(helpfulVotes(reviewId)).isEqualTo(2);
+    }
+
+    @Test
+    void batchRacingAnotherWriterIsReplayedOneVoteAtATime() throws Exception {
+        Long reviewId = newReview("vote_race_author");
+        Long racerId = newUser("vote_race_voter");
+        Long otherId = newUser("vote_race_other");
+
+        // 1. Another writer (another instance) inserts the same pair and commits while the batch waits on it
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = holdVoteRow(racerId, reviewId, release, true);
+        Future<VoteResult> racing = submitAndAwaitQueued(new VoteCommand(racerId, reviewId, true), 0);
+        Thread.sleep(200); // Let the writer reach the locked row
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+
+        // 2. The batch saw no vote, but its INSERT changed no row: the replay reports the real outcome
+        assertThat(racing.get(10, TimeUnit.SECONDS)).isEqualTo(VoteResult.DUPLICATE);
+        assertThat(voteIngestionService.submit(new VoteCommand(otherId, reviewId, true))).isEqualTo(VoteResult.ACCEPTED);
+
+        assertThat(votes(reviewId)).isEqualTo(2);
+        // Only the vote this writer recorded is counted; the other writer counts its own
+        assertThat(helpfulVotes(reviewId)).isEqualTo(1);
+    }
+
+    // Inserts the vote row in another transaction and keeps it uncommitted until released
+    private Future<?> holdVoteRow(Long userId, Long reviewId, CountDownLatch release, boolean commit) throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        Future<?> holder = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO review_votes (user_id, review_id) VALUES (?, ?)", userId, reviewId);
+            held.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!commit) {
+                status.setRollbackOnly();
+            }
+        }));
+        assertThat(held.await(10, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    // Submits from another thread; while the writer is held, waits until the vote is queued behind it
+    private Future<VoteResult> submitAndAwaitQueued(VoteCommand command, int queuedVotes) throws InterruptedException {
+        Future<VoteResult> result = pool.submit(() -> voteIngestionService.submit(command));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (queuedVotes > 0 && meterRegistry.get("votes.queue.size").gauge().value() < queuedVotes
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return result;
+    }
+
+    private int votes(Long reviewId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM review_votes WHERE review_id = ?", Integer.class, reviewId);
+    }
+
+    private int helpfulVotes(Long reviewId) {
+        helpfulVoteCounter.flush();
+        return jdbcTemplate.queryForObject("SELECT helpful_votes FROM reviews WHERE id = ?", Integer.class, reviewId);
+    }
+
+    private Long newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user).getId();
+    }
+
+    private Long newReview(String authorName) {
+        Product product = new Product();
+        product.setName("Vote Product " + authorName);
+        Review review = new Review();
+        review.setProduct(productRepository.save(product));
+        review.setUser(userRepository.getReferenceById(newUser(authorName)));
+        review.setRating(4);
+        review.setComment("A review to vote on");
+        review.setReviewDate(LocalDateTime.now());
+        return reviewRepository.save(review).getId();
+    }
+}
@@ -0,0 +1,96 @@
+package com.niket.productreviewsystem.validator;
+
+import com.niket.productreviewsystem.validator.TextScreener.Category;
+import com.niket.productreviewsystem.validator.TextScreener.Match;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matching rules of the Aho–Corasick screener: overlapping terms, word boundaries, case folding,
+ * non-ASCII text and terms, and blocklist words next to the link markers.
+ */
+class TextScreenerTest {
+
+    private final TextScreener urls = TextScreener.urlMarkers();
+
+    @Test
+    void overlappingDomainsMatchTheOneEndingAtAWordBoundary() {
+        // ".co" ends first but is followed by 'm'; ".com" ends at the boundary
+        assertThat(urls.find("visit example.com today")).isEqualTo(new Match(".com", Category.URL, 13, 17));
+        assertThat(urls.find("see example.co now")).isEqualTo(new Match(".co", Category.URL, 11, 14));
+        assertThat(urls.find("example.co")).isEqualTo(new Match(".co", Category.URL, 7, 10));
+
+        // Neither ends at a boundary
+        assertThat(urls.find("that was so.cool")).isNull();
+        assertThat(urls.find("the .company picnic")).isNull();
+    }
+
+    @Test
+    void boundaryBeforeAndAfterAreCheckedSeparately() {
+        TextScreener screener = TextScreener.builder()
+                .add("cat", Category.BLOCKLIST, true, false)
+                .add("dog", Category.BLOCKLIST, false, true)
+                .build();
+
+        // Boundary before only: a prefix of a longer word matches, a suffix does not
+        assertThat(screener.find("a catalog")).isEqualTo(new Match("cat", Category.BLOCKLIST, 2, 5));
+        assertThat(screener.find("concat")).isNull();
+        // Boundary after only: the reverse
+        assertThat(screener.find("a hotdog!")).isEqualTo(new Match("dog", Category.BLOCKLIST, 5, 8));
+        assertThat(screener.find("dogma")).isNull();
+
+        // The link markers: "www." must start a word, schemes need no boundary
+        assertThat(urls.find("www.example")).isEqualTo(new Match("www.", Category.URL, 0, 4));
+        assertThat(urls.find("awww. so cute")).isNull();
+        assertThat(urls.find("xhttps://host")).isEqualTo(new Match("https://", Category.URL, 1, 9));
+    }
+
+    @Test
+    void matchingIgnoresCaseOfTermsAndText() {
+        TextScreener screener = TextScreener.builder()
+                .addUrlMarkers()
+                .addBlocklist(List.of("Spam"))
+                .build();
+
+        assertThat(screener.find("Go to HTTPS://Example.COM")).isEqualTo(new Match("https://", Category.URL, 6, 14));
+        assertThat(screener.find("WWW.EXAMPLE.ORG").term()).isEqualTo("www.");
+        assertThat(screener.find("this is SPAM")).isEqualTo(new Match("spam", Category.BLOCKLIST, 8, 12));
+    }
+
+    @Test
+    void nonAsciiTermsAndTextAreMatched() {
+        TextScreener screener = TextScreener.builder()
+                .addUrlMarkers()
+                .addBlocklist(List.of("Café", "спам"))
+                .build();
+
+        assertThat(screener.find("Ein CAFÉ hier")).isEqualTo(new Match("café", Category.BLOCKLIST, 4, 8));
+        assertThat(screener.find("Это СПАМ!")).isEqualTo(new Match("спам", Category.BLOCKLIST, 4, 8));
+        // A non-ASCII letter is a letter for the boundary checks
+        assertThat(screener.find("cafés")).isNull();
+        assertThat(screener.find("nécafé")).isNull();
+        // Characters no term uses do not disturb the scan
+        assertThat(screener.find("naïve 日本 www.x")).isEqualTo(new Match("www.", Category.URL, 9, 13));
+    }
+
+    @Test
+    void blocklistWordsAreFoundAsWholeWords() {
+        TextScreener screener = TextScreener.builder()
+                .addUrlMarkers()
+                .addBlocklist(List.of("scam", "fake", "buy now", " ", "scam"))
+                .build();
+
+        assertThat(screener.find("This is a scam.")).isEqualTo(new Match("scam", Category.BLOCKLIST, 10, 14));
+        assertThat(screener.find("Great scampi")).isNull();
+        assertThat(screener.find("BUY NOW while it lasts").term()).isEqualTo("buy now");
+        // The term that ends first wins, whatever its category
+        assertThat(screener.find("fake, see www.x.com").category()).isEqualTo(Category.BLOCKLIST);
+        assertThat(screener.find("see www.x.com, fake").category()).isEqualTo(Category.URL);
+
+        assertThat(screener.containsAny("An honest review")).isFalse();
+        assertThat(screener.containsAny(null)).isFalse();
+    }
+}